@@ -1,8 +1,16 @@
 plugins {
     alias(libs.plugins.android.application)
+    alias(libs.plugins.baselineprofile)
     id("com.google.gms.google-services")
 }
 
+// Host of the local Firebase Auth/Firestore emulators, e.g. -PfirebaseEmulatorHost=10.0.2.2.
+// Empty (the default) means the app talks to the real Firebase project.
+val firebaseEmulatorHost = providers.gradleProperty("firebaseEmulatorHost").getOrElse("")
+// Collect latency histograms and JankStats in release builds too, e.g. -PperfMetrics=true.
+// Debug builds always collect them; trace sections are emitted either way.
+val perfMetricsInRelease = providers.gradleProperty("perfMetrics").getOrElse("false").toBoolean()
+
 android {
     namespace = "com.example.firebasenavdemo"
     compileSdk = 36
@@ -16,10 +24,18 @@ android {
         vectorDrawables.useSupportLibrary = true
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        buildConfigField("String", "FIREBASE_EMULATOR_HOST", "\"$firebaseEmulatorHost\"")
+        // Emulator runs (benchmarks) restore the seeded session instead of forcing a login.
+        buildConfigField("boolean", "FORCE_LOGIN_EVERY_TIME", firebaseEmulatorHost.isEmpty().toString())
     }
 
     buildTypes {
+        debug {
+            buildConfigField("boolean", "PERF_METRICS", "true")
+        }
         release {
+            buildConfigField("boolean", "PERF_METRICS", perfMetricsInRelease.toString())
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -33,11 +49,16 @@ android {
     }
     buildFeatures {
         viewBinding = true
+        buildConfig = true
     }
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation("androidx.appcompat:appcompat:1.7.0")
+    implementation("androidx.core:core-splashscreen:1.0.1")
+    implementation("androidx.lifecycle:lifecycle-viewmodel:2.8.7")
+    implementation("androidx.lifecycle:lifecycle-livedata:2.8.7")
     implementation("com.google.android.material:material:1.12.0")
     implementation(libs.activity)
     implementation(libs.constraintlayout)
@@ -54,4 +75,12 @@ dependencies {
     implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("androidx.cardview:cardview:1.0.0")
     implementation("com.google.firebase:firebase-firestore")
+    // Trace sections and frame (jank) reporting for the perf metrics screen.
+    implementation(libs.tracing)
+    implementation(libs.metrics.performance)
+    // Background delta sync of the items store.
+    implementation(libs.work.runtime)
+    // Installs the baseline profile generated by :benchmark on release installs.
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":benchmark"))
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.example.firebasenavdemo.data;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ItemFileReader}. Instrumented, as the JSON format is read with the
+ * platform's {@code android.util.JsonReader}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemFileReaderTest {
+
+    private static final String BOM = "\uFEFF";
+
+    private static List<SimpleItem> read(String contents) throws IOException {
+        List<SimpleItem> items = new ArrayList<>();
+        try (ItemFileReader reader = ItemFileReader.open(new StringReader(contents))) {
+            for (SimpleItem item = reader.next(); item != null; item = reader.next()) items.add(item);
+        }
+        return items;
+    }
+
+    @Test
+    public void json_readsItems() throws IOException {
+        List<SimpleItem> items = read(" [{\"title\":\"A\",\"subtitle\":\"a\",\"id\":\"1\"},{\"title\":\"B\"}]");
+
+        assertEquals(2, items.size());
+        assertEquals(new SimpleItem("1", "A", "a"), items.get(0));
+        assertEquals(new SimpleItem(null, "B", null), items.get(1));
+    }
+
+    @Test
+    public void json_skipsByteOrderMark() throws IOException {
+        List<SimpleItem> items = read(BOM + "[{\"title\":\"A\",\"subtitle\":\"a\"}]");
+
+        assertEquals(1, items.size());
+        assertEquals("A", items.get(0).title);
+        assertEquals("a", items.get(0).subtitle);
+    }
+
+    @Test
+    public void csv_readsQuotedFieldsWithoutHeader() throws IOException {
+        List<SimpleItem> items = read("A,a\r\n\"B, b\",\"say \"\"hi\"\"\nthere\"\n\nC\n");
+
+        assertEquals(3, items.size());
+        assertEquals("A", items.get(0).title);
+        assertEquals("B, b", items.get(1).title);
+        assertEquals("say \"hi\"\nthere", items.get(1).subtitle);
+        assertEquals("C", items.get(2).title);
+        assertNull(items.get(2).subtitle);
+    }
+
+    @Test
+    public void csv_skipsByteOrderMarkBeforeHeader() throws IOException {
+        List<SimpleItem> items = read(BOM + "id,subtitle,title\r\n7,a,A\r\n");
+
+        assertEquals(1, items.size());
+        assertEquals(new SimpleItem("7", "A", "a"), items.get(0));
+    }
+}
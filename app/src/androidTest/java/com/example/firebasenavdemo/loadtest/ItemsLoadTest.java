@@ -0,0 +1,177 @@
+package com.example.firebasenavdemo.loadtest;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.firebasenavdemo.BuildConfig;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Drives the app's write paths against the local Firebase emulators at a fixed rate,
+ * for several users with large item collections, and writes the end-to-end latencies
+ * as a JSON report.
+ *
+ * <p>Requires an app built with {@code -PfirebaseEmulatorHost} (it is skipped otherwise,
+ * so it can never touch the real project). Parameters are instrumentation arguments,
+ * e.g. {@code -Pandroid.testInstrumentationRunnerArguments.loadUsers=10}:</p>
+ * <ul>
+ *     <li>{@code loadUsers}: simulated users, each on a writer and a viewer device (3)</li>
+ *     <li>{@code loadItems}: items seeded per user (1000)</li>
+ *     <li>{@code loadOpsPerSecond}: operations per second across all users (5)</li>
+ *     <li>{@code loadDurationSeconds}: how long operations are issued (30)</li>
+ *     <li>{@code loadDeleteShare}: share of operations that are swipe deletes (0.3)</li>
+ * </ul>
+ *
+ * <p>After the timed phase every user's items are deleted with the bulk deleter. The
+ * report goes to the test's additional output directory (pulled to
+ * {@code app/build/outputs/connected_android_test_additional_output}) or, if there is
+ * none, to the app's external files under {@code loadtest/}.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemsLoadTest {
+
+    private static final String TAG = "ItemsLoadTest";
+    private static final String PASSWORD = "load-password";
+    // How long to wait for the viewers' first lists, the last operations and delete-all.
+    private static final long SETTLE_TIMEOUT_MS = 60_000;
+    private static final long POLL_MS = 100;
+
+    @Test
+    public void itemsUnderLoad() throws Exception {
+        String host = BuildConfig.FIREBASE_EMULATOR_HOST;
+        assumeFalse("Needs a build made with -PfirebaseEmulatorHost", host.isEmpty());
+
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context context = instrumentation.getTargetContext();
+        Bundle args = InstrumentationRegistry.getArguments();
+        int userCount = Integer.parseInt(args.getString("loadUsers", "3"));
+        int itemCount = Integer.parseInt(args.getString("loadItems", "1000"));
+        double opsPerSecond = Double.parseDouble(args.getString("loadOpsPerSecond", "5"));
+        int durationSeconds = Integer.parseInt(args.getString("loadDurationSeconds", "30"));
+        double deleteShare = Double.parseDouble(args.getString("loadDeleteShare", "0.3"));
+
+        LoadReport report = new LoadReport();
+        Handler main = new Handler(Looper.getMainLooper());
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        // --- Seed and sign in ---
+        LoadSeeder seeder = new LoadSeeder(host);
+        List<VirtualUser> users = new ArrayList<>();
+        long seedStart = SystemClock.elapsedRealtime();
+        for (int i = 0; i < userCount; i++) {
+            String email = String.format(Locale.ROOT, "load-%03d@example.com", i);
+            String uid = seeder.ensureUser(email, PASSWORD);
+            List<String> ids = seeder.seed(uid, itemCount);
+            users.add(VirtualUser.start(context, host, run + "-" + i, uid, email, PASSWORD, ids, report));
+        }
+        long seedMs = SystemClock.elapsedRealtime() - seedStart;
+        for (VirtualUser user : users) instrumentation.runOnMainSync(user::open);
+        assertTrue("Viewers did not load the seeded items",
+                waitFor(instrumentation, users, u -> u.shown() >= itemCount));
+
+        // --- Timed phase ---
+        Random random = new Random(42);
+        long intervalNanos = (long) (1e9 / opsPerSecond);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long next = start;
+        int seq = 0;
+        while (next < end) {
+            VirtualUser user = users.get(seq % users.size());
+            int s = seq++;
+            if (random.nextDouble() < deleteShare) {
+                main.post(() -> user.swipeDelete(s));
+            } else {
+                main.post(() -> user.add(s));
+            }
+            next += intervalNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        long issueMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean settled = waitFor(instrumentation, users, u -> u.pending() == 0);
+
+        // --- Delete all ---
+        CountDownLatch deleted = new CountDownLatch(users.size());
+        for (VirtualUser user : users) main.post(() -> user.deleteAll(context, deleted::countDown));
+        boolean emptied = deleted.await(SETTLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        for (VirtualUser user : users) instrumentation.runOnMainSync(user::stop);
+        for (VirtualUser user : users) user.close();
+
+        // --- Report ---
+        JSONObject config = new JSONObject()
+                .put("run", run)
+                .put("device", Build.MANUFACTURER + " " + Build.MODEL + " (API " + Build.VERSION.SDK_INT + ")")
+                .put("users", userCount)
+                .put("itemsPerUser", itemCount)
+                .put("opsPerSecond", opsPerSecond)
+                .put("durationSeconds", durationSeconds)
+                .put("deleteShare", deleteShare)
+                .put("operationsIssued", seq)
+                .put("issueMs", issueMs)
+                .put("seedMs", seedMs)
+                .put("settled", settled)
+                .put("deleteAllFinished", emptied);
+        File file = new File(outputDir(context, args), "items-load-" + run + ".json");
+        report.write(file, config);
+        Log.i(TAG, "Load-test report written to " + file);
+
+        assertEquals("Failed adds", 0, report.counter(LoadReport.ADD, "failed"));
+        assertEquals("Failed swipe deletes", 0, report.counter(LoadReport.SWIPE_DELETE, "failed"));
+        assertTrue("Operations did not settle", settled);
+        assertTrue("Delete-all did not finish", emptied);
+    }
+
+    /** A condition checked on the main thread. */
+    private interface Condition {
+        boolean holds(@NonNull VirtualUser user);
+    }
+
+    // Polls until the condition holds for every user, or the settle timeout passes.
+    private static boolean waitFor(@NonNull Instrumentation instrumentation, @NonNull List<VirtualUser> users,
+                                   @NonNull Condition condition) throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + SETTLE_TIMEOUT_MS;
+        while (SystemClock.elapsedRealtime() < deadline) {
+            boolean[] all = {true};
+            instrumentation.runOnMainSync(() -> {
+                for (VirtualUser user : users) all[0] &= condition.holds(user);
+            });
+            if (all[0]) return true;
+            Thread.sleep(POLL_MS);
+        }
+        return false;
+    }
+
+    @NonNull
+    private static File outputDir(@NonNull Context context, @NonNull Bundle args) {
+        String additional = args.getString("additionalTestOutputDir");
+        if (additional != null) return new File(additional);
+        return new File(context.getExternalFilesDir(null), "loadtest");
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.firebasenavdemo.loadtest;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and counters of one load-test run, written as a JSON report.
+ *
+ * <p>Samples are kept exactly (not bucketed like the app's
+ * {@code LatencyHistogram}), so percentiles of two runs can be compared directly.
+ * Every stage is measured from the start of its operation. Thread-safe.</p>
+ */
+final class LoadReport {
+
+    // --- Operations ---
+    static final String ADD = "add";
+    static final String SWIPE_DELETE = "swipeDelete";
+    static final String DELETE_ALL = "deleteAll";
+
+    // --- Stages ---
+    /** The writing client's write task completed. */
+    static final String ACK = "ack";
+    /** A snapshot listener of the viewing client saw the change. */
+    static final String LISTENER = "listener";
+    /** The viewing client's items pipeline delivered a list reflecting the change. */
+    static final String LIST_UPDATED = "listUpdated";
+
+    private final Map<String, Samples> samples = new TreeMap<>();
+    private final Map<String, Long> counters = new TreeMap<>();
+
+    /** Records one stage of one operation. */
+    synchronized void record(@NonNull String op, @NonNull String stage, long nanos) {
+        String key = op + "." + stage;
+        Samples s = samples.get(key);
+        if (s == null) {
+            s = new Samples();
+            samples.put(key, s);
+        }
+        s.add(nanos);
+    }
+
+    /** Adds to a counter, e.g. of failed or unfinished operations. */
+    synchronized void count(@NonNull String op, @NonNull String counter, long n) {
+        String key = op + "." + counter;
+        Long old = counters.get(key);
+        counters.put(key, (old == null ? 0 : old) + n);
+    }
+
+    /** The value of a counter. */
+    synchronized long counter(@NonNull String op, @NonNull String counter) {
+        Long n = counters.get(op + "." + counter);
+        return n == null ? 0 : n;
+    }
+
+    /**
+     * Writes the report.
+     * @param file The file to write.
+     * @param config The run's parameters, copied into the report.
+     */
+    synchronized void write(@NonNull File file, @NonNull JSONObject config) throws IOException, JSONException {
+        JSONObject ops = new JSONObject();
+        for (Map.Entry<String, Samples> e : samples.entrySet()) {
+            String[] key = e.getKey().split("\\.", 2);
+            JSONObject op = ops.optJSONObject(key[0]);
+            if (op == null) ops.put(key[0], op = new JSONObject());
+            op.put(key[1] + "Ms", e.getValue().toJson());
+        }
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            String[] key = e.getKey().split("\\.", 2);
+            JSONObject op = ops.optJSONObject(key[0]);
+            if (op == null) ops.put(key[0], op = new JSONObject());
+            op.put(key[1], e.getValue().longValue());
+        }
+        JSONObject root = new JSONObject()
+                .put("config", config)
+                .put("operations", ops);
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(root.toString(2).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The samples of one stage, with nearest-rank percentiles.
+     */
+    private static final class Samples {
+        private long[] nanos = new long[64];
+        private int size;
+
+        void add(long n) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = n;
+        }
+
+        JSONObject toJson() throws JSONException {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            long sum = 0;
+            for (long n : sorted) sum += n;
+            return new JSONObject()
+                    .put("count", size)
+                    .put("mean", size == 0 ? 0 : sum / 1e6 / size)
+                    .put("p50", percentile(sorted, 50))
+                    .put("p90", percentile(sorted, 90))
+                    .put("p95", percentile(sorted, 95))
+                    .put("p99", percentile(sorted, 99))
+                    .put("max", size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(sorted.length * p / 100.0);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.firebasenavdemo.loadtest;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.FirebaseNavDemoApp;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Seeds load-test users and their items in the local Auth and Firestore emulators
+ * through their REST APIs, which is much faster than writing through the SDK.
+ * Seeding is idempotent: users are reused and items have fixed document ids.
+ */
+final class LoadSeeder {
+
+    /** Project id from app/google-services.json; the emulators key data by it. */
+    private static final String PROJECT_ID = "fir-navdemo";
+    private static final int WRITES_PER_COMMIT = 500;
+
+    private final String host;
+
+    /**
+     * @param host The emulator host, as seen from the device.
+     */
+    LoadSeeder(@NonNull String host) {
+        this.host = host;
+    }
+
+    /**
+     * Writes {@code itemCount} items for a user, overwriting those of earlier runs.
+     * @param uid The user's uid.
+     * @param itemCount The number of items.
+     * @return The ids of the seeded items.
+     */
+    @NonNull
+    List<String> seed(@NonNull String uid, int itemCount) throws IOException, JSONException {
+        String documents = "projects/" + PROJECT_ID + "/databases/(default)/documents";
+        List<String> ids = new ArrayList<>(itemCount);
+        for (int start = 0; start < itemCount; start += WRITES_PER_COMMIT) {
+            JSONArray writes = new JSONArray();
+            for (int i = start; i < Math.min(itemCount, start + WRITES_PER_COMMIT); i++) {
+                String id = String.format(Locale.ROOT, "load-%05d", i);
+                JSONObject fields = new JSONObject()
+                        .put("title", string(String.format(Locale.ROOT, "Item %05d", i)))
+                        .put("subtitle", string("Seeded load-test item " + i));
+                writes.put(new JSONObject().put("update", new JSONObject()
+                        .put("name", documents + "/users/" + uid + "/items/" + id)
+                        .put("fields", fields)));
+                ids.add(id);
+            }
+            // "Bearer owner" is the emulator's admin token; it bypasses security rules.
+            post("http://" + host + ":" + FirebaseNavDemoApp.FIRESTORE_EMULATOR_PORT + "/v1/"
+                    + documents + ":commit", new JSONObject().put("writes", writes), "owner");
+        }
+        return ids;
+    }
+
+    /**
+     * Creates a user, or signs it in if it already exists.
+     * @return The user's uid.
+     */
+    @NonNull
+    String ensureUser(@NonNull String email, @NonNull String password) throws IOException, JSONException {
+        String base = "http://" + host + ":" + FirebaseNavDemoApp.AUTH_EMULATOR_PORT
+                + "/identitytoolkit.googleapis.com/v1/accounts:";
+        JSONObject body = new JSONObject()
+                .put("email", email)
+                .put("password", password)
+                .put("returnSecureToken", true);
+        try {
+            return post(base + "signUp?key=emulator", body, null).getString("localId");
+        } catch (IOException alreadyExists) {
+            return post(base + "signInWithPassword?key=emulator", body, null).getString("localId");
+        }
+    }
+
+    private static JSONObject string(String value) throws JSONException {
+        return new JSONObject().put("stringValue", value);
+    }
+
+    private static JSONObject post(String url, JSONObject body, @Nullable String bearer)
+            throws IOException, JSONException {
+        HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            c.setRequestMethod("POST");
+            c.setDoOutput(true);
+            c.setRequestProperty("Content-Type", "application/json");
+            if (bearer != null) c.setRequestProperty("Authorization", "Bearer " + bearer);
+            try (OutputStream out = c.getOutputStream()) {
+                out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            int code = c.getResponseCode();
+            if (code / 100 != 2) {
+                throw new IOException("HTTP " + code + " from " + url + ": " + read(c.getErrorStream()));
+            }
+            return new JSONObject(read(c.getInputStream()));
+        } finally {
+            c.disconnect();
+        }
+    }
+
+    private static String read(@Nullable InputStream in) throws IOException {
+        if (in == null) return "";
+        try (InputStream is = in) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = is.read(chunk)) > 0) buf.write(chunk, 0, n);
+            return buf.toString("UTF-8");
+        }
+    }
+}
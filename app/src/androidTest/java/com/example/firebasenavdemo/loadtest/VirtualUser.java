@@ -0,0 +1,357 @@
+package com.example.firebasenavdemo.loadtest;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.FirebaseNavDemoApp;
+import com.example.firebasenavdemo.core.ItemsUpdate;
+import com.example.firebasenavdemo.core.PackedItems;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.example.firebasenavdemo.data.BulkDeleter;
+import com.example.firebasenavdemo.data.FirestoreConfig;
+import com.example.firebasenavdemo.data.ItemCodec;
+import com.example.firebasenavdemo.data.ItemDeleteQueue;
+import com.example.firebasenavdemo.data.ItemsPipeline;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated user, signed in on two devices: a writer that changes items through
+ * the app's own write paths, and a viewer that shows them through an
+ * {@link ItemsPipeline}, the way a second phone would.
+ *
+ * <p>Each device is a separate {@link FirebaseApp} with its own Auth session and
+ * Firestore instance (and cache), so a change travels writer → emulator → viewer
+ * exactly like a change made on another device. For every operation the report gets
+ * the time until the writer's write was acknowledged, until the viewer's snapshot
+ * listener saw it, and until the viewer's pipeline delivered a list reflecting it.</p>
+ *
+ * <p>Everything except {@link #start} and {@link #close} runs on the main thread.</p>
+ */
+final class VirtualUser {
+
+    private static final long SIGN_IN_TIMEOUT_S = 30;
+
+    /**
+     * One operation in flight; complete once all three stages were seen.
+     */
+    private static final class Op {
+        final String kind;
+        final String key; // title for adds, document id for deletes
+        final long start = SystemClock.elapsedRealtimeNanos();
+        long ack;
+        long listener;
+        long list;
+
+        Op(@NonNull String kind, @NonNull String key) {
+            this.kind = kind;
+            this.key = key;
+        }
+    }
+
+    private final String name;
+    private final String uid;
+    private final LoadReport report;
+    private final FirebaseApp writerApp;
+    private final FirebaseApp viewerApp;
+    private final CollectionReference writerItems;
+    private final Query viewerQuery;
+
+    private ItemsPipeline writerPipeline;
+    private ItemDeleteQueue deletes;
+    private ItemsPipeline viewerPipeline;
+    private ListenerRegistration viewerList;
+    private ListenerRegistration viewerChanges;
+
+    // --- Main Thread State ---
+    private final ArrayDeque<String> deletable;
+    private final Map<String, Op> pendingAdds = new HashMap<>();
+    private final Map<String, Op> pendingDeletes = new HashMap<>();
+    private int shown = -1;
+    private long deleteAllStart;
+    private long deleteAllDone;
+    private long deleteAllEmpty;
+    @Nullable private Runnable onDeleteAllDone;
+
+    private VirtualUser(@NonNull String name, @NonNull String uid, @NonNull LoadReport report,
+                        @NonNull FirebaseApp writerApp, @NonNull FirebaseApp viewerApp,
+                        @NonNull List<String> seededIds) {
+        this.name = name;
+        this.uid = uid;
+        this.report = report;
+        this.writerApp = writerApp;
+        this.viewerApp = viewerApp;
+        this.writerItems = FirebaseFirestore.getInstance(writerApp)
+                .collection("users").document(uid).collection("items");
+        // The items screen's query.
+        this.viewerQuery = FirebaseFirestore.getInstance(viewerApp)
+                .collection("users").document(uid).collection("items").orderBy("title");
+        List<String> ids = new ArrayList<>(seededIds);
+        Collections.shuffle(ids);
+        this.deletable = new ArrayDeque<>(ids);
+    }
+
+    /**
+     * Signs a user in on both devices. Blocks; call off the main thread, then call
+     * {@link #open()} on the main thread.
+     * @param context Any context.
+     * @param host The emulator host.
+     * @param name A name unique within the run, used for the Firebase app names.
+     * @param uid The user's uid.
+     * @param email The user's email.
+     * @param password The user's password.
+     * @param seededIds The ids of the user's seeded items, which swipe deletes pick from.
+     * @param report Receives the timings.
+     */
+    @NonNull
+    static VirtualUser start(@NonNull Context context, @NonNull String host, @NonNull String name,
+                             @NonNull String uid, @NonNull String email, @NonNull String password,
+                             @NonNull List<String> seededIds, @NonNull LoadReport report) throws Exception {
+        FirebaseApp writer = device(context, host, name + "-writer", email, password);
+        FirebaseApp viewer = device(context, host, name + "-viewer", email, password);
+        return new VirtualUser(name, uid, report, writer, viewer, seededIds);
+    }
+
+    private static FirebaseApp device(@NonNull Context context, @NonNull String host, @NonNull String appName,
+                                      @NonNull String email, @NonNull String password) throws Exception {
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(), appName);
+        FirebaseAuth auth = FirebaseAuth.getInstance(app);
+        auth.useEmulator(host, FirebaseNavDemoApp.AUTH_EMULATOR_PORT);
+        FirebaseFirestore db = FirebaseFirestore.getInstance(app);
+        db.useEmulator(host, FirebaseNavDemoApp.FIRESTORE_EMULATOR_PORT);
+        FirestoreConfig.configure(context, db);
+        Tasks.await(auth.signInWithEmailAndPassword(email, password), SIGN_IN_TIMEOUT_S, TimeUnit.SECONDS);
+        return app;
+    }
+
+    /**
+     * Starts the viewer's list and the writer's delete queue.
+     */
+    @MainThread
+    void open() {
+        writerPipeline = new ItemsPipeline(new ItemsPipeline.Listener() {
+            @Override public void onItemsUpdated(@NonNull ItemsUpdate update) {}
+            @Override public void onItemsError(@NonNull Exception e) {}
+        });
+        deletes = new ItemDeleteQueue(writerItems, writerPipeline, e -> {});
+        viewerPipeline = new ItemsPipeline(new ItemsPipeline.Listener() {
+            @Override public void onItemsUpdated(@NonNull ItemsUpdate update) {
+                onViewerList(update.items);
+            }
+
+            @Override public void onItemsError(@NonNull Exception e) {
+                report.count("viewer", "errors", 1);
+            }
+        });
+        viewerList = viewerPipeline.listen(viewerQuery);
+        // A plain listener on the same query (shared by the SDK) to time the snapshot itself.
+        viewerChanges = viewerQuery.addSnapshotListener((snap, e) -> {
+            if (snap == null) return;
+            long now = SystemClock.elapsedRealtimeNanos();
+            for (DocumentChange change : snap.getDocumentChanges()) {
+                Op op = null;
+                if (change.getType() == DocumentChange.Type.ADDED) {
+                    String title = change.getDocument().getString("title");
+                    if (title != null) op = pendingAdds.get(title);
+                } else if (change.getType() == DocumentChange.Type.REMOVED
+                        || Boolean.TRUE.equals(change.getDocument().getBoolean(ItemCodec.DELETED))) {
+                    // A delete writes a tombstone, which the query sees as a modification;
+                    // a purged tombstone leaves the query.
+                    op = pendingDeletes.get(change.getDocument().getId());
+                }
+                if (op != null && op.listener == 0) {
+                    op.listener = now;
+                    finishIfDone(op);
+                }
+            }
+        });
+    }
+
+    /** The number of items the viewer shows, or -1 before its first list. */
+    @MainThread
+    int shown() {
+        return shown;
+    }
+
+    /** The number of operations still waiting for one of their stages. */
+    @MainThread
+    int pending() {
+        return pendingAdds.size() + pendingDeletes.size();
+    }
+
+    /**
+     * Adds an item the way the add dialog does.
+     * @param seq A number unique within the run, to tell the item apart.
+     */
+    @MainThread
+    void add(int seq) {
+        String title = String.format(Locale.ROOT, "Load %s %07d", name, seq);
+        Op op = new Op(LoadReport.ADD, title);
+        pendingAdds.put(title, op);
+        writerItems.add(ItemCodec.encode(new SimpleItem(title, "Added by the load test")))
+                .addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        fail(op);
+                        return;
+                    }
+                    deletable.add(task.getResult().getId());
+                    op.ack = SystemClock.elapsedRealtimeNanos();
+                    finishIfDone(op);
+                });
+    }
+
+    /**
+     * Deletes an item the way a swipe does, sending it at once instead of after the undo
+     * window so the timings do not include the window. Adds an item instead if there is
+     * nothing left to delete.
+     */
+    @MainThread
+    void swipeDelete(int seq) {
+        String id = deletable.poll();
+        if (id == null) {
+            add(seq);
+            return;
+        }
+        Op op = new Op(LoadReport.SWIPE_DELETE, id);
+        pendingDeletes.put(id, op);
+        deletes.delete(id);
+        deletes.flush().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                fail(op);
+                return;
+            }
+            op.ack = SystemClock.elapsedRealtimeNanos();
+            finishIfDone(op);
+        });
+    }
+
+    /**
+     * Deletes all of the user's items the way the account screen does.
+     * @param context Used by the deleter to persist progress.
+     * @param done Called once the deleter finished and the viewer's list is empty.
+     */
+    @MainThread
+    void deleteAll(@NonNull Context context, @NonNull Runnable done) {
+        onDeleteAllDone = done;
+        deleteAllStart = SystemClock.elapsedRealtimeNanos();
+        new BulkDeleter(context, FirebaseFirestore.getInstance(writerApp), uid).start(new BulkDeleter.Listener() {
+            @Override public void onProgress(long deleted, long total) {}
+
+            @Override public void onFinished(long deleted) {
+                deleteAllDone = SystemClock.elapsedRealtimeNanos();
+                report.count(LoadReport.DELETE_ALL, "documents", deleted);
+                finishDeleteAllIfDone();
+            }
+
+            @Override public void onFailed(@NonNull Exception e) {
+                report.count(LoadReport.DELETE_ALL, "failed", 1);
+                Runnable finished = onDeleteAllDone;
+                onDeleteAllDone = null;
+                if (finished != null) finished.run();
+            }
+        });
+    }
+
+    /**
+     * Counts the operations that never completed and detaches the viewer.
+     */
+    @MainThread
+    void stop() {
+        for (Op op : pendingAdds.values()) report.count(op.kind, "unfinished", 1);
+        for (Op op : pendingDeletes.values()) report.count(op.kind, "unfinished", 1);
+        pendingAdds.clear();
+        pendingDeletes.clear();
+        if (viewerChanges != null) viewerChanges.remove();
+        if (viewerList != null) viewerList.remove();
+        if (viewerPipeline != null) viewerPipeline.close();
+        if (writerPipeline != null) writerPipeline.close();
+    }
+
+    /**
+     * Shuts down both devices. Blocks; call off the main thread after {@link #stop()}.
+     */
+    void close() throws Exception {
+        Tasks.await(FirebaseFirestore.getInstance(writerApp).terminate());
+        Tasks.await(FirebaseFirestore.getInstance(viewerApp).terminate());
+        writerApp.delete();
+        viewerApp.delete();
+    }
+
+    // --- Viewer ---
+
+    private void onViewerList(@NonNull PackedItems items) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        shown = items.size();
+        if (deleteAllStart != 0 && deleteAllEmpty == 0 && items.isEmpty()) {
+            deleteAllEmpty = now;
+            finishDeleteAllIfDone();
+        }
+        if (pendingAdds.isEmpty() && pendingDeletes.isEmpty()) return;
+        Set<String> ids = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            ids.add(items.id(i));
+            titles.add(items.title(i));
+        }
+        for (Op op : new ArrayList<>(pendingAdds.values())) {
+            if (op.list == 0 && titles.contains(op.key)) {
+                op.list = now;
+                finishIfDone(op);
+            }
+        }
+        for (Op op : new ArrayList<>(pendingDeletes.values())) {
+            if (op.list == 0 && !ids.contains(op.key)) {
+                op.list = now;
+                finishIfDone(op);
+            }
+        }
+    }
+
+    private void finishIfDone(@NonNull Op op) {
+        if (op.ack == 0 || op.listener == 0 || op.list == 0) return;
+        report.record(op.kind, LoadReport.ACK, op.ack - op.start);
+        report.record(op.kind, LoadReport.LISTENER, op.listener - op.start);
+        report.record(op.kind, LoadReport.LIST_UPDATED, op.list - op.start);
+        report.count(op.kind, "completed", 1);
+        forget(op);
+    }
+
+    private void fail(@NonNull Op op) {
+        report.count(op.kind, "failed", 1);
+        forget(op);
+    }
+
+    private void forget(@NonNull Op op) {
+        (op.kind.equals(LoadReport.ADD) ? pendingAdds : pendingDeletes).remove(op.key);
+    }
+
+    private void finishDeleteAllIfDone() {
+        if (deleteAllDone == 0 || deleteAllEmpty == 0 || onDeleteAllDone == null) return;
+        report.record(LoadReport.DELETE_ALL, LoadReport.ACK, deleteAllDone - deleteAllStart);
+        report.record(LoadReport.DELETE_ALL, LoadReport.LIST_UPDATED, deleteAllEmpty - deleteAllStart);
+        Runnable done = onDeleteAllDone;
+        onDeleteAllDone = null;
+        done.run();
+    }
+}
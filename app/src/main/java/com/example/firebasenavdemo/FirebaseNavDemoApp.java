@@ -0,0 +1,42 @@
+package com.example.firebasenavdemo;
+
+import android.app.Application;
+
+import com.example.firebasenavdemo.data.FirestoreConfig;
+import com.example.firebasenavdemo.perf.StallWatchdog;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * The application class. It runs before any activity and is the one place where
+ * process-wide Firebase configuration has to happen, before the first Firebase call.
+ */
+public class FirebaseNavDemoApp extends Application {
+
+    // --- Default ports of the Firebase Local Emulator Suite (see firebase.json) ---
+    /** Port of the Auth emulator. */
+    public static final int AUTH_EMULATOR_PORT = 9099;
+    /** Port of the Firestore emulator. */
+    public static final int FIRESTORE_EMULATOR_PORT = 8080;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // --- Debug Diagnostics ---
+        // Reports main-thread stalls and StrictMode violations on the metrics screen.
+        if (BuildConfig.DEBUG) StallWatchdog.install(this);
+
+        // --- Local Emulators ---
+        // Builds made with -PfirebaseEmulatorHost=... (benchmarks, load tests) talk to the
+        // local Auth and Firestore emulators, so runs are reproducible and fully offline.
+        String host = BuildConfig.FIREBASE_EMULATOR_HOST;
+        if (!host.isEmpty()) {
+            FirebaseAuth.getInstance().useEmulator(host, AUTH_EMULATOR_PORT);
+            FirebaseFirestore.getInstance().useEmulator(host, FIRESTORE_EMULATOR_PORT);
+        }
+
+        // --- Firestore Cache ---
+        FirestoreConfig.configure(this);
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.firebasenavdemo.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes every item of a user without loading the collection into memory at once.
+ *
+ * <p>The collection is paged by document id in chunks of {@value #BATCH_SIZE} (Firestore's
+ * per-batch write limit). Each page becomes one {@link WriteBatch} that turns its items
+ * into tombstones (see {@link ItemCodec#tombstone()}), skipping those that already are,
+ * and the next page is fetched while earlier commits are still in flight, up to
+ * {@value #MAX_IN_FLIGHT} at a time. Memory use is therefore bounded by a few pages,
+ * whatever the collection size.</p>
+ *
+ * <p>A run can be cancelled at any time. Commits already in flight still land and are
+ * still counted: progress and the last page up to which every commit has landed are saved
+ * per user, so starting again resumes where the last run stopped. A new run for the same
+ * user waits until the commits of a cancelled one have settled. Task callbacks run on a
+ * private worker thread; the {@link Listener} is called on the main thread.</p>
+ */
+public class BulkDeleter {
+
+    /**
+     * Receives progress and the outcome of a run on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param deleted Documents deleted so far, including earlier interrupted runs.
+         * @param total Estimated total, or -1 while it is still being counted.
+         */
+        void onProgress(long deleted, long total);
+        void onFinished(long deleted);
+        void onFailed(@NonNull Exception e);
+    }
+
+    /** Maximum number of writes Firestore accepts in one batch. */
+    public static final int BATCH_SIZE = 500;
+    /** Maximum number of batch commits awaiting the server at once. */
+    public static final int MAX_IN_FLIGHT = 3;
+
+    private static final String PREFS = "bulk_delete";
+
+    // Per user, settles once the latest run has no commit in flight any more.
+    private static final Map<String, Task<Void>> settling = new HashMap<>();
+
+    private final FirebaseFirestore db;
+    private final CollectionReference collection;
+    private final SharedPreferences prefs;
+    private final String key;
+    private final String uid;
+    private final String cursorKey;
+    private final SerialWorker worker = new SerialWorker("bulk-delete");
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final TaskCompletionSource<Void> settled = new TaskCompletionSource<>();
+
+    // --- Run State (confined to the worker thread, except the volatile fields) ---
+    @Nullable private volatile Listener listener;
+    private volatile boolean cancelled;
+    private String cursor;      // id of the last document queued for deletion
+    // Commits in page order; the head is the oldest one that has not landed yet.
+    private final Deque<Commit> commits = new ArrayDeque<>();
+    private boolean fetching;
+    private boolean exhausted;
+    private boolean failed;
+    private int inFlight;
+    private long deleted;
+    private long total = -1;
+
+    /**
+     * @param context Used to persist progress.
+     * @param db The Firestore instance.
+     * @param uid The user whose items are deleted.
+     */
+    public BulkDeleter(@NonNull Context context, @NonNull FirebaseFirestore db, @NonNull String uid) {
+        this.db = db;
+        this.collection = db.collection("users").document(uid).collection("items");
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.uid = uid;
+        this.key = "deleted_" + uid;
+        this.cursorKey = "cursor_" + uid;
+    }
+
+    /**
+     * Returns whether an earlier run for this user was interrupted before finishing.
+     * @param context Used to read the saved progress.
+     * @param uid The user id.
+     */
+    public static boolean hasUnfinishedRun(@NonNull Context context, @NonNull String uid) {
+        return context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .contains("deleted_" + uid);
+    }
+
+    /**
+     * Starts (or resumes) deleting. A deleter instance runs at most once.
+     * @param listener Receives progress on the main thread.
+     */
+    public void start(@NonNull Listener listener) {
+        this.listener = listener;
+        Task<Void> previous;
+        synchronized (settling) {
+            previous = settling.put(uid, settled.getTask());
+        }
+        if (previous == null) {
+            worker.execute(this::run);
+        } else {
+            // The saved progress is final only once a cancelled run's commits have landed.
+            previous.addOnCompleteListener(worker, t -> run());
+        }
+    }
+
+    /**
+     * Stops issuing new pages. Commits already in flight still complete and are counted
+     * in the saved progress, which lets a later run resume. No listener callbacks are made
+     * after this call.
+     */
+    public void cancel() {
+        cancelled = true;
+        listener = null;
+        worker.execute(this::stopIfSettled);
+    }
+
+    // --- Worker Thread ---
+
+    private void run() {
+        if (cancelled) {
+            stopIfSettled();
+            return;
+        }
+        deleted = prefs.getLong(key, 0);
+        cursor = prefs.getString(cursorKey, null);
+        prefs.edit().putLong(key, deleted).apply();
+        postProgress();
+
+        // Count what is left so progress can be shown as a fraction; deletion does not wait
+        // for it. Items written before tombstones existed have no flag, so tombstones are
+        // counted and subtracted rather than live items counted directly.
+        Task<AggregateQuerySnapshot> all = collection.count().get(AggregateSource.SERVER);
+        Task<AggregateQuerySnapshot> gone = collection.whereEqualTo(ItemCodec.DELETED, true)
+                .count().get(AggregateSource.SERVER);
+        Tasks.whenAllSuccess(all, gone).addOnSuccessListener(worker, counts -> {
+            total = deleted + all.getResult().getCount() - gone.getResult().getCount();
+            postProgress();
+        });
+        fetchNext();
+    }
+
+    // Fetches the next page if the pipeline has room for another commit.
+    private void fetchNext() {
+        if (cancelled || failed || exhausted || fetching || inFlight >= MAX_IN_FLIGHT) return;
+        fetching = true;
+        Query page = collection.orderBy(FieldPath.documentId()).limit(BATCH_SIZE);
+        if (cursor != null) page = page.startAfter(cursor);
+        page.get().addOnCompleteListener(worker, task -> {
+            fetching = false;
+            if (cancelled || failed) {
+                // Nothing of this page was sent.
+                stopIfSettled();
+                return;
+            }
+            if (!task.isSuccessful()) {
+                fail(task.getException());
+                return;
+            }
+            QuerySnapshot snap = task.getResult();
+            List<DocumentSnapshot> docs = snap.getDocuments();
+            if (docs.size() < BATCH_SIZE) exhausted = true;
+            if (!docs.isEmpty()) {
+                cursor = docs.get(docs.size() - 1).getId();
+                commit(docs);
+            }
+            fetchNext();
+            finishIfDone();
+        });
+    }
+
+    private void commit(@NonNull List<DocumentSnapshot> page) {
+        List<DocumentSnapshot> docs = new ArrayList<>(page.size());
+        for (DocumentSnapshot d : page) {
+            if (!Boolean.TRUE.equals(d.getBoolean(ItemCodec.DELETED))) docs.add(d);
+        }
+        Commit commit = new Commit(page.get(page.size() - 1).getId(), docs.size());
+        WriteBatch batch = db.batch();
+        for (DocumentSnapshot d : docs) {
+            batch.set(d.getReference(), ItemCodec.tombstone(), SetOptions.merge());
+        }
+        commits.addLast(commit);
+        inFlight++;
+        // Runs after a cancel or a failure too: the batch has landed (or not) either way,
+        // and the saved progress must say so.
+        batch.commit().addOnCompleteListener(worker, task -> {
+            inFlight--;
+            if (task.isSuccessful()) {
+                commit.landed = true;
+                deleted += commit.count;
+                save();
+                if (!cancelled) postProgress();
+                fetchNext();
+                finishIfDone();
+            } else {
+                fail(task.getException());
+            }
+            stopIfSettled();
+        });
+    }
+
+    /**
+     * Saves the count and, as the resume point, the last page before the oldest commit
+     * that has not landed. Commits may finish out of order; a later page that landed
+     * early is only re-read on resume, and its tombstones are skipped.
+     */
+    private void save() {
+        String resumeAfter = null;
+        while (!commits.isEmpty() && commits.peekFirst().landed) {
+            resumeAfter = commits.pollFirst().last;
+        }
+        SharedPreferences.Editor edit = prefs.edit().putLong(key, deleted);
+        if (resumeAfter != null) edit.putString(cursorKey, resumeAfter);
+        edit.apply();
+    }
+
+    private void finishIfDone() {
+        if (cancelled || !exhausted || fetching || inFlight > 0 || failed) return;
+        prefs.edit().remove(key).remove(cursorKey).apply();
+        long result = deleted;
+        settle();
+        mainHandler.post(() -> {
+            Listener l = listener;
+            if (l != null) l.onFinished(result);
+        });
+    }
+
+    private void fail(@Nullable Exception e) {
+        if (failed) return;
+        failed = true;
+        if (!cancelled) {
+            Exception error = (e != null) ? e : new IllegalStateException("Delete failed");
+            mainHandler.post(() -> {
+                Listener l = listener;
+                if (l != null) l.onFailed(error);
+            });
+        }
+        stopIfSettled();
+    }
+
+    // Once a stopped run has nothing in flight, lets the next run for this user start.
+    private void stopIfSettled() {
+        if ((cancelled || failed) && !fetching && inFlight == 0) settle();
+    }
+
+    private void settle() {
+        if (settled.getTask().isComplete()) return;
+        synchronized (settling) {
+            if (settling.get(uid) == settled.getTask()) settling.remove(uid);
+        }
+        settled.setResult(null);
+        worker.shutdownWhenIdle();
+    }
+
+    private void postProgress() {
+        long d = deleted;
+        long t = total;
+        mainHandler.post(() -> {
+            Listener l = listener;
+            if (l != null) l.onProgress(d, t);
+        });
+    }
+
+    /** One page's batch commit. */
+    private static final class Commit {
+        final String last;  // id of the page's last document
+        final int count;    // tombstones written
+        boolean landed;
+
+        Commit(@NonNull String last, int count) {
+            this.last = last;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.firebasenavdemo.data;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports items from a local JSON or CSV file (see {@link ItemFileReader}).
+ *
+ * <p>The file is parsed as a stream into chunks of {@link BulkDeleter#BATCH_SIZE} items,
+ * each written as one {@link WriteBatch}. Up to {@value #MAX_IN_FLIGHT} commits are
+ * awaited at once while the next chunk is parsed, so at most a few chunks are held in
+ * memory. Document ids are generated on the client before the first attempt (or taken
+ * from the file), so retrying a failed batch overwrites rather than duplicates.</p>
+ *
+ * <p>Writes are paced by a token bucket that starts at {@value #START_RATE} items per
+ * second and grows by half every {@value #RAMP_INTERVAL_MS} ms, following Firestore's
+ * advice for ramping up traffic to a new collection. Task callbacks run on a private
+ * worker thread; the {@link Listener} is called on the main thread.</p>
+ */
+public class BulkImporter {
+
+    /**
+     * Receives progress and the outcome of a run on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param imported Items committed so far.
+         * @param itemsPerSecond Average throughput since the start of the run.
+         */
+        void onProgress(long imported, double itemsPerSecond);
+        void onFinished(long imported);
+        void onFailed(@NonNull Exception e);
+    }
+
+    /** Maximum number of batch commits awaiting the server at once. */
+    public static final int MAX_IN_FLIGHT = 4;
+
+    private static final int START_RATE = 500;
+    private static final long RAMP_INTERVAL_MS = 5 * 60 * 1000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final Context context;
+    private final FirebaseFirestore db;
+    private final CollectionReference collection;
+    private final Uri file;
+    private final SerialWorker worker = new SerialWorker("bulk-import");
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // --- Run State (confined to the worker thread, except the volatile fields) ---
+    @Nullable private volatile Listener listener;
+    private volatile boolean cancelled;
+    private ItemFileReader reader;
+    private boolean exhausted;
+    private boolean failed;
+    private boolean waiting;    // a paced pump is scheduled
+    private int inFlight;
+    private long imported;
+    private long startedAt;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param context Used to open the file.
+     * @param db The Firestore instance.
+     * @param uid The user whose collection receives the items.
+     * @param file A readable document, e.g. from the system file picker.
+     */
+    public BulkImporter(@NonNull Context context, @NonNull FirebaseFirestore db,
+                        @NonNull String uid, @NonNull Uri file) {
+        this.context = context.getApplicationContext();
+        this.db = db;
+        this.collection = db.collection("users").document(uid).collection("items");
+        this.file = file;
+    }
+
+    /**
+     * Starts importing. An importer instance runs at most once.
+     * @param listener Receives progress on the main thread.
+     */
+    public void start(@NonNull Listener listener) {
+        this.listener = listener;
+        worker.execute(() -> {
+            try {
+                InputStream in = context.getContentResolver().openInputStream(file);
+                if (in == null) throw new IOException("Cannot open " + file);
+                reader = ItemFileReader.open(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return;
+            }
+            startedAt = refilledAt = SystemClock.elapsedRealtime();
+            tokens = BulkDeleter.BATCH_SIZE;
+            postProgress();
+            pump();
+        });
+    }
+
+    /**
+     * Stops parsing and issuing batches. Commits already in flight still complete.
+     * No listener callbacks are made after this call.
+     */
+    public void cancel() {
+        cancelled = true;
+        listener = null;
+        worker.execute(this::closeReader);
+        worker.shutdownWhenIdle();
+    }
+
+    // --- Worker Thread ---
+
+    // Parses and commits chunks while the window and the rate limit allow.
+    private void pump() {
+        while (!cancelled && !failed && !exhausted && !waiting && inFlight < MAX_IN_FLIGHT) {
+            long delay = reserve();
+            if (delay > 0) {
+                waiting = true;
+                mainHandler.postDelayed(() -> worker.execute(() -> {
+                    waiting = false;
+                    pump();
+                }), delay);
+                return;
+            }
+            List<SimpleItem> chunk;
+            try {
+                chunk = readChunk();
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return;
+            }
+            if (!chunk.isEmpty()) commit(chunk, 1);
+        }
+        finishIfDone();
+    }
+
+    // Takes a chunk's worth of tokens, or returns how long to wait until they are available.
+    private long reserve() {
+        long now = SystemClock.elapsedRealtime();
+        double rate = currentRate(now);
+        tokens = Math.min(tokens + (now - refilledAt) * rate / 1000, Math.max(rate, BulkDeleter.BATCH_SIZE));
+        refilledAt = now;
+        if (tokens >= BulkDeleter.BATCH_SIZE) {
+            tokens -= BulkDeleter.BATCH_SIZE;
+            return 0;
+        }
+        return (long) Math.ceil((BulkDeleter.BATCH_SIZE - tokens) * 1000 / rate);
+    }
+
+    // Items per second allowed at a given time: the start rate, plus 50% per interval.
+    private double currentRate(long now) {
+        long steps = (now - startedAt) / RAMP_INTERVAL_MS;
+        return START_RATE * Math.pow(1.5, steps);
+    }
+
+    @NonNull
+    private List<SimpleItem> readChunk() throws IOException {
+        List<SimpleItem> chunk = new ArrayList<>(BulkDeleter.BATCH_SIZE);
+        while (chunk.size() < BulkDeleter.BATCH_SIZE) {
+            SimpleItem item = reader.next();
+            if (item == null) {
+                exhausted = true;
+                closeReader();
+                break;
+            }
+            if (item.title == null || item.title.trim().isEmpty()) continue;
+            // Fix the id now, so a retried batch writes the same documents again.
+            if (item.id == null || item.id.isEmpty() || item.id.contains("/")) {
+                item.id = collection.document().getId();
+            }
+            chunk.add(item);
+        }
+        return chunk;
+    }
+
+    private void commit(@NonNull List<SimpleItem> chunk, int attempt) {
+        WriteBatch batch = db.batch();
+        for (SimpleItem item : chunk) {
+            batch.set(collection.document(item.id), ItemCodec.encode(item));
+        }
+        inFlight++;
+        batch.commit().addOnCompleteListener(worker, task -> {
+            inFlight--;
+            if (!task.isSuccessful()) {
+                if (attempt < MAX_ATTEMPTS && !cancelled && !failed) {
+                    // Same ids, so a retry cannot create duplicates. Hold the slot while waiting.
+                    inFlight++;
+                    mainHandler.postDelayed(() -> worker.execute(() -> {
+                        inFlight--;
+                        commit(chunk, attempt + 1);
+                    }), RETRY_DELAY_MS * attempt);
+                    return;
+                }
+                fail(task.getException());
+                return;
+            }
+            imported += chunk.size();
+            postProgress();
+            pump();
+        });
+    }
+
+    private void finishIfDone() {
+        if (!exhausted || inFlight > 0 || failed || cancelled) return;
+        long result = imported;
+        worker.shutdownWhenIdle();
+        mainHandler.post(() -> {
+            Listener l = listener;
+            if (l != null) l.onFinished(result);
+        });
+    }
+
+    private void fail(@Nullable Exception e) {
+        if (failed) return;
+        failed = true;
+        closeReader();
+        worker.shutdownWhenIdle();
+        Exception error = (e != null) ? e : new IllegalStateException("Import failed");
+        mainHandler.post(() -> {
+            Listener l = listener;
+            if (l != null) l.onFailed(error);
+        });
+    }
+
+    private void closeReader() {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // Nothing left to read from it anyway.
+        }
+        reader = null;
+    }
+
+    private void postProgress() {
+        long n = imported;
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - startedAt);
+        double rate = n * 1000.0 / elapsed;
+        mainHandler.post(() -> {
+            Listener l = listener;
+            if (l != null) l.onProgress(n, rate);
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.firebasenavdemo.data;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.firebasenavdemo.perf.PerfMetrics;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheIndexManager;
+import com.google.firebase.firestore.PersistentCacheSettings;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The app's Firestore setup and the read modes built on it.
+ *
+ * <p>{@link #configure(Context)} runs once, before the first Firestore call, and
+ * replaces the SDK defaults: the persistent cache gets an explicit size, above which
+ * the least recently used documents not held by an active listener are garbage
+ * collected, and the SDK creates client-side indexes for the queries it sees run
+ * against the cache. Without indexes, an offline or cache-only query over a large
+ * collection scans every cached document of it.</p>
+ *
+ * <p>{@link #getCacheFirst(Query, int, Executor)} answers one-shot reads from the cache
+ * when it holds the whole result and falls back to the server otherwise. Cache hits, misses and the
+ * time of each read are recorded in {@link PerfMetrics}.</p>
+ */
+public final class FirestoreConfig {
+
+    // Persistent cache size; documents beyond it are evicted least recently used first.
+    private static final long CACHE_SIZE_BYTES = 256L * 1024 * 1024;
+    // Devices that report low RAM usually have little storage too.
+    private static final long LOW_RAM_CACHE_SIZE_BYTES = 48L * 1024 * 1024;
+
+    private FirestoreConfig() {}
+
+    /**
+     * Applies the cache settings and enables automatic cache indexing. Call from
+     * {@code Application.onCreate()}, before anything else uses Firestore.
+     * @param context Any context.
+     */
+    public static void configure(@NonNull Context context) {
+        configure(context, FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * Applies the same configuration to another instance, e.g. one of a secondary
+     * {@code FirebaseApp}. Call before anything else uses that instance.
+     * @param context Any context.
+     * @param db The instance to configure.
+     */
+    public static void configure(@NonNull Context context, @NonNull FirebaseFirestore db) {
+        ActivityManager am = context.getSystemService(ActivityManager.class);
+        long cacheSize = (am != null && am.isLowRamDevice()) ? LOW_RAM_CACHE_SIZE_BYTES : CACHE_SIZE_BYTES;
+        db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                        .setSizeBytes(cacheSize)
+                        .build())
+                .build());
+        // Null only if the cache is not persistent, which the settings above rule out.
+        PersistentCacheIndexManager indexes = db.getPersistentCacheIndexManager();
+        if (indexes != null) indexes.enableIndexAutoCreation();
+    }
+
+    /**
+     * The configured Firestore instance.
+     */
+    @NonNull
+    public static FirebaseFirestore db() {
+        return FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Reads a query from the local cache, and from the server if the cache has fewer
+     * than {@code expected} matching documents (or cannot be read). The cache only holds
+     * the documents earlier queries happened to load, so a short cached result may just
+     * be a partial one; for a {@code limit(n)} query pass {@code n}. A cached result may
+     * be stale; use this where showing the last known state at once matters more than
+     * freshness.
+     * @param query The query.
+     * @param expected The number of documents a complete result has at least.
+     * @param executor The executor for the fallback and the returned task's continuations.
+     * @return The snapshot of whichever source answered.
+     */
+    @NonNull
+    public static Task<QuerySnapshot> getCacheFirst(@NonNull Query query, int expected,
+                                                    @NonNull Executor executor) {
+        long start = System.nanoTime();
+        return query.get(Source.CACHE).continueWithTask(executor, cached -> {
+            long nanos = System.nanoTime() - start;
+            if (cached.isSuccessful() && !cached.getResult().isEmpty()
+                    && cached.getResult().size() >= expected) {
+                PerfMetrics.record(PerfMetrics.FIRESTORE_CACHE_HIT, nanos);
+                return cached;
+            }
+            PerfMetrics.record(PerfMetrics.FIRESTORE_CACHE_MISS, nanos);
+            PerfMetrics.AsyncSpan server = PerfMetrics.beginAsync(PerfMetrics.FIRESTORE_SERVER_READ);
+            return query.get(Source.SERVER).addOnCompleteListener(executor, t -> server.end());
+        });
+    }
+}
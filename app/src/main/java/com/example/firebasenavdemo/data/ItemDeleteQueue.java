@@ -0,0 +1,131 @@
+package com.example.firebasenavdemo.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects item deletions for a short window and sends them as one {@link WriteBatch},
+ * so swiping away many rows costs one round trip and one snapshot instead of one each.
+ *
+ * <p>Queued items are hidden in the {@link ItemsPipeline} right away, so they disappear
+ * from the list immediately. Every new deletion restarts the {@value #WINDOW_MS} ms
+ * window; until it ends, {@link #undo()} shows the items again without any network
+ * traffic. When the window ends or {@link #flush()} is called (e.g. because the screen
+ * is left), the queue is committed in batches of at most {@value BulkDeleter#BATCH_SIZE}.
+ * Items whose deletion fails are shown again and the error is reported. Deletions are
+ * written as tombstones (see {@link ItemCodec#tombstone()}).</p>
+ *
+ * <p>All methods are called on the main thread.</p>
+ */
+public class ItemDeleteQueue {
+
+    /**
+     * Receives failed commits on the main thread.
+     */
+    public interface Listener {
+        void onDeleteFailed(@NonNull Exception e);
+    }
+
+    /** How long deletions wait for more deletions (and can be undone) before they are sent. */
+    public static final long WINDOW_MS = 4000;
+
+    private final CollectionReference collection;
+    private final ItemsPipeline pipeline;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flush;
+
+    // Ids waiting for the window to end, in swipe order.
+    private final Set<String> pending = new LinkedHashSet<>();
+
+    /**
+     * @param collection The collection the items are deleted from.
+     * @param pipeline The pipeline whose list hides queued items.
+     * @param listener Receives failed commits.
+     */
+    public ItemDeleteQueue(@NonNull CollectionReference collection, @NonNull ItemsPipeline pipeline,
+                           @NonNull Listener listener) {
+        this.collection = collection;
+        this.pipeline = pipeline;
+        this.listener = listener;
+    }
+
+    /**
+     * Hides an item at once and queues its deletion, restarting the window.
+     * @param id The document id.
+     */
+    @MainThread
+    public void delete(@NonNull String id) {
+        if (!pending.add(id)) return;
+        pipeline.hide(Collections.singletonList(id));
+        mainHandler.removeCallbacks(flushTask);
+        mainHandler.postDelayed(flushTask, WINDOW_MS);
+    }
+
+    /** The number of deletions waiting for the window to end. */
+    @MainThread
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Cancels every queued deletion and shows the items again. Nothing is sent.
+     */
+    @MainThread
+    public void undo() {
+        mainHandler.removeCallbacks(flushTask);
+        if (pending.isEmpty()) return;
+        pipeline.unhide(pending);
+        pending.clear();
+    }
+
+    /**
+     * Sends the queued deletions now instead of at the end of the window.
+     * @return A task that completes when every batch sent has been committed (or failed).
+     */
+    @MainThread
+    @NonNull
+    public Task<Void> flush() {
+        mainHandler.removeCallbacks(flushTask);
+        if (pending.isEmpty()) return Tasks.forResult(null);
+        List<String> ids = new ArrayList<>(pending);
+        pending.clear();
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += BulkDeleter.BATCH_SIZE) {
+            commits.add(commit(ids.subList(start, Math.min(ids.size(), start + BulkDeleter.BATCH_SIZE))));
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    @NonNull
+    private Task<Void> commit(@NonNull List<String> ids) {
+        WriteBatch batch = collection.getFirestore().batch();
+        for (String id : ids) {
+            batch.set(collection.document(id), ItemCodec.tombstone(), SetOptions.merge());
+        }
+        return batch.commit().addOnCompleteListener(task -> {
+            // The local write already removed the items from the list; only failed ones
+            // are still loaded and reappear.
+            pipeline.unhide(ids);
+            if (!task.isSuccessful()) {
+                Exception e = task.getException();
+                listener.onDeleteFailed(e != null ? e : new IllegalStateException("Delete failed"));
+            }
+        });
+    }
+}
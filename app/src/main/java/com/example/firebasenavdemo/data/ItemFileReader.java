@@ -0,0 +1,209 @@
+package com.example.firebasenavdemo.data;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams items out of an import file one at a time, so a file of any size is read
+ * with constant memory.
+ *
+ * <p>Two formats are accepted. JSON is an array of objects with {@code title},
+ * {@code subtitle} and an optional {@code id}. CSV has one item per line as
+ * {@code title,subtitle}; a header line naming the columns ({@code title},
+ * {@code subtitle}, {@code id}) may reorder them. Quoted CSV fields may contain commas,
+ * doubled quotes and line breaks.</p>
+ */
+abstract class ItemFileReader implements Closeable {
+
+    // U+FEFF, the byte order mark; neither whitespace nor removed by trim().
+    private static final int BOM = 0xFEFF;
+
+    /**
+     * Opens a reader, choosing the format from the first non-blank character. A leading
+     * byte order mark, as written by Excel and some editors, is skipped.
+     * @param in The file contents.
+     * @return A JSON reader if the file starts with '[', otherwise a CSV reader.
+     */
+    @NonNull
+    static ItemFileReader open(@NonNull Reader in) throws IOException {
+        BufferedReader buffered = new BufferedReader(in);
+        buffered.mark(1);
+        if (buffered.read() != BOM) buffered.reset();
+        int c;
+        do {
+            buffered.mark(1);
+            c = buffered.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        buffered.reset();
+        return (c == '[') ? new Json(buffered) : new Csv(buffered);
+    }
+
+    /**
+     * Returns the next item, or null at the end of the file. Items have a null id unless
+     * the file supplies one.
+     */
+    @Nullable
+    abstract SimpleItem next() throws IOException;
+
+    // --- JSON ---
+
+    private static final class Json extends ItemFileReader {
+        private final JsonReader reader;
+        private boolean started;
+
+        Json(@NonNull Reader in) {
+            reader = new JsonReader(in);
+        }
+
+        @Nullable
+        @Override
+        SimpleItem next() throws IOException {
+            if (!started) {
+                reader.beginArray();
+                started = true;
+            }
+            if (!reader.hasNext()) return null;
+            SimpleItem item = new SimpleItem();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "title": item.title = reader.nextString(); break;
+                    case "subtitle": item.subtitle = reader.nextString(); break;
+                    case "id": item.id = reader.nextString(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return item;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // --- CSV ---
+
+    private static final class Csv extends ItemFileReader {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private int titleColumn = 0;
+        private int subtitleColumn = 1;
+        private int idColumn = -1;
+        private boolean headerChecked;
+        private boolean eof;
+
+        Csv(@NonNull Reader in) {
+            this.in = in;
+        }
+
+        @Nullable
+        @Override
+        SimpleItem next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) return null;
+                if (!headerChecked) {
+                    headerChecked = true;
+                    if (readHeader(record)) record = null;
+                }
+            } while (record == null || (record.size() == 1 && record.get(0).isEmpty()));
+            SimpleItem item = new SimpleItem(column(record, titleColumn), column(record, subtitleColumn));
+            item.id = column(record, idColumn);
+            return item;
+        }
+
+        // Maps columns by name if the first record is a header; returns whether it was one.
+        private boolean readHeader(@NonNull List<String> record) {
+            int title = -1;
+            int subtitle = -1;
+            int id = -1;
+            for (int i = 0; i < record.size(); i++) {
+                switch (record.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "title": title = i; break;
+                    case "subtitle": subtitle = i; break;
+                    case "id": id = i; break;
+                    default: break;
+                }
+            }
+            if (title < 0) return false;
+            titleColumn = title;
+            subtitleColumn = subtitle;
+            idColumn = id;
+            return true;
+        }
+
+        @Nullable
+        private static String column(@NonNull List<String> record, int i) {
+            return (i >= 0 && i < record.size()) ? record.get(i) : null;
+        }
+
+        // Reads one record, or returns null at the end of the input.
+        @Nullable
+        private List<String> readRecord() throws IOException {
+            if (eof) return null;
+            List<String> record = new ArrayList<>();
+            boolean quoted = false;
+            boolean any = false;
+            field.setLength(0);
+            while (true) {
+                int c = in.read();
+                if (c == -1) {
+                    eof = true;
+                    if (!any) return null;
+                    record.add(field.toString());
+                    return record;
+                }
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    record.add(field.toString());
+                    return record;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.firebasenavdemo.data;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.ItemOrder;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An on-device SQLite table of {@link SimpleItem} rows, keyed by user id and document id.
+ * It holds the last known state of each user's items so the list can be shown
+ * immediately on a cold start, before Firestore has delivered anything, together with
+ * the user's sync point: the server time up to which the rows are known to be complete,
+ * so later syncs only need to read what changed after it.
+ * All methods do disk I/O and must be called off the main thread.
+ */
+public class ItemStore extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "items.db";
+    private static final int DB_VERSION = 2;
+
+    // --- Schema ---
+    private static final String TABLE = "items";
+    private static final String COL_UID = "uid";
+    private static final String COL_ID = "id";
+    private static final String COL_TITLE = "title";
+    private static final String COL_SUBTITLE = "subtitle";
+    private static final String SYNC_TABLE = "sync_state";
+    private static final String COL_SYNCED_UNTIL = "synced_until";
+
+    // Sync points older than this are ignored: tombstones written after them may have
+    // been purged already. A day short of the purge age, for clocks that disagree.
+    private static final long MAX_SYNC_POINT_AGE_MS = ItemCodec.TOMBSTONE_TTL_MS - TimeUnit.DAYS.toMillis(1);
+
+    private static volatile ItemStore instance;
+
+    /**
+     * Returns the process-wide store. SQLiteOpenHelper must not be opened twice.
+     * @param context Any context; the application context is retained.
+     */
+    @NonNull
+    public static ItemStore get(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (ItemStore.class) {
+                if (instance == null) {
+                    instance = new ItemStore(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private ItemStore(@NonNull Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_UID + " TEXT NOT NULL, "
+                + COL_ID + " TEXT NOT NULL, "
+                + COL_TITLE + " TEXT, "
+                + COL_SUBTITLE + " TEXT, "
+                + "PRIMARY KEY (" + COL_UID + ", " + COL_ID + "))");
+        // Serves the ordered load below without a sort step.
+        db.execSQL("CREATE INDEX items_by_title ON " + TABLE
+                + " (" + COL_UID + ", " + COL_TITLE + ", " + COL_ID + ")");
+        db.execSQL("CREATE TABLE " + SYNC_TABLE + " ("
+                + COL_UID + " TEXT PRIMARY KEY, "
+                + COL_SYNCED_UNTIL + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // The tables are only a cache of Firestore; it is safe to rebuild them. Without a
+        // sync point, the next load reads the full collection again.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + SYNC_TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * Loads a user's items ordered like {@link ItemOrder#BY_TITLE}. SQLite's default
+     * BINARY collation compares UTF-8 bytes, which is the same as code point order.
+     * @param uid The user id.
+     * @return The stored items, sorted.
+     */
+    @NonNull
+    public List<SimpleItem> load(@NonNull String uid) {
+        List<SimpleItem> items = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE,
+                new String[]{COL_ID, COL_TITLE, COL_SUBTITLE},
+                COL_UID + " = ?", new String[]{uid},
+                null, null, COL_TITLE + ", " + COL_ID)) {
+            while (c.moveToNext()) {
+                SimpleItem item = new SimpleItem(c.getString(1), c.getString(2));
+                item.id = c.getString(0);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Returns a user's sync point: every change the server made at or before it is in
+     * the stored rows.
+     * @param uid The user id.
+     * @return Milliseconds since the epoch, or -1 if the user's items were never read in
+     *         full, or not since deleted items started being purged.
+     */
+    public long syncPoint(@NonNull String uid) {
+        try (Cursor c = getReadableDatabase().query(SYNC_TABLE,
+                new String[]{COL_SYNCED_UNTIL},
+                COL_UID + " = ?", new String[]{uid},
+                null, null, null)) {
+            long point = c.moveToFirst() ? c.getLong(0) : -1;
+            return (point >= System.currentTimeMillis() - MAX_SYNC_POINT_AGE_MS) ? point : -1;
+        }
+    }
+
+    /**
+     * Writes a batch of changes for a user in a single transaction, which also advances
+     * the sync point, so the point never runs ahead of the rows.
+     * @param uid The user id.
+     * @param upserts Items to insert or replace.
+     * @param removals Ids of items to delete.
+     * @param syncPoint The new sync point in milliseconds since the epoch, or -1 to keep
+     *                  the current one. An earlier point than the stored one is ignored.
+     */
+    public void apply(@NonNull String uid, @NonNull Collection<SimpleItem> upserts,
+                      @NonNull Collection<String> removals, long syncPoint) {
+        if (upserts.isEmpty() && removals.isEmpty() && syncPoint < 0) return;
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try (SQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO " + TABLE
+                     + " (" + COL_UID + ", " + COL_ID + ", " + COL_TITLE + ", " + COL_SUBTITLE
+                     + ") VALUES (?, ?, ?, ?)");
+             SQLiteStatement delete = db.compileStatement("DELETE FROM " + TABLE
+                     + " WHERE " + COL_UID + " = ? AND " + COL_ID + " = ?")) {
+            for (SimpleItem item : upserts) {
+                insert.bindString(1, uid);
+                insert.bindString(2, item.id);
+                bindNullable(insert, 3, item.title);
+                bindNullable(insert, 4, item.subtitle);
+                insert.executeInsert();
+            }
+            for (String id : removals) {
+                delete.bindString(1, uid);
+                delete.bindString(2, id);
+                delete.executeUpdateDelete();
+            }
+            if (syncPoint >= 0) {
+                // The live listener and the background sync both advance it.
+                db.execSQL("INSERT INTO " + SYNC_TABLE + " (" + COL_UID + ", " + COL_SYNCED_UNTIL
+                        + ") VALUES (?, ?) ON CONFLICT(" + COL_UID + ") DO UPDATE SET "
+                        + COL_SYNCED_UNTIL + " = MAX(" + COL_SYNCED_UNTIL + ", excluded." + COL_SYNCED_UNTIL + ")",
+                        new Object[]{uid, syncPoint});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void bindNullable(@NonNull SQLiteStatement s, int index, @Nullable String value) {
+        if (value == null) {
+            s.bindNull(index);
+        } else {
+            s.bindString(index, value);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.firebasenavdemo.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.ItemOrder;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads an ordered query page by page into an {@link ItemsPipeline}, keeping only a
+ * window of pages around the scroll position resident.
+ *
+ * <p>Each page is defined by cursors: it starts after the last document of the previous
+ * page and ends at its own boundary document. Only the tail page is open-ended
+ * ({@code limit()}); when the next page is requested its boundary is fixed, so later
+ * inserts grow a page instead of pushing documents into a gap. The tail keeps its
+ * listener, whose results are cut at the boundary, and is only queried with
+ * {@code endAt()} once it is re-attached. Resident pages hold a real-time listener;
+ * evicted pages keep only their cursors so they can be re-attached when the user
+ * scrolls back. Memory and listener reads are therefore bounded by the window size,
+ * not by the size of the collection. Visible rows are mapped to pages by their owner in
+ * the displayed list, so a search or hidden rows do not shift the window.</p>
+ *
+ * <p>In {@link ReadMode#CACHE_FIRST} mode pages are read once instead of listened to,
+ * from the local cache when it has them (see {@link FirestoreConfig#getCacheFirst}),
+ * so scrolling through already seen pages costs no reads and works offline, at the
+ * price of live updates.</p>
+ *
+ * <p>All state is confined to the pipeline's executor.</p>
+ */
+public class ItemsPager {
+
+    /**
+     * How pages are read.
+     */
+    public enum ReadMode {
+        /** Each resident page holds a real-time listener. */
+        LIVE,
+        /** Each page is read once, from the local cache if it has the page. */
+        CACHE_FIRST
+    }
+
+    /** Number of documents requested per page. */
+    public static final int PAGE_SIZE = 30;
+
+    // Start loading a neighbouring page when the viewport is this many rows from an edge.
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+    // Resident pages kept on each side of the visible pages; anything further is evicted.
+    private static final int KEEP_PAGES = 2;
+
+    /**
+     * One page of the query. Cursors are kept for the life of the pager; the listener
+     * only while the page is resident.
+     */
+    private static final class Page {
+        @Nullable final DocumentSnapshot startAfter; // null for the first page
+        @Nullable DocumentSnapshot endAt;            // null while this is the open tail page
+        @Nullable SimpleItem boundary;               // endAt, decoded
+        boolean openListener; // listening with limit() although endAt is fixed
+        @Nullable DocumentSnapshot lastSeen;         // last document of the latest snapshot
+        @Nullable ListenerRegistration registration; // only in live mode
+        boolean resident;
+        int generation;     // bumped on every (re)attach to drop events from old listeners
+        int loadedSize = -1; // size of the latest snapshot, -1 until the first one arrives
+
+        Page(@Nullable DocumentSnapshot startAfter) {
+            this.startAfter = startAfter;
+        }
+
+        boolean isResident() {
+            return resident;
+        }
+    }
+
+    private final Query query;
+    private final ItemsPipeline pipeline;
+    private final ReadMode mode;
+    private final List<Page> pages = new ArrayList<>();
+    private boolean stopped;
+
+    /**
+     * @param query The ordered base query, e.g. {@code itemsRef.orderBy("title")}.
+     * @param pipeline The pipeline receiving the pages' snapshots.
+     * @param mode How pages are read.
+     */
+    public ItemsPager(@NonNull Query query, @NonNull ItemsPipeline pipeline, @NonNull ReadMode mode) {
+        this.query = query;
+        this.pipeline = pipeline;
+        this.mode = mode;
+    }
+
+    /**
+     * Loads the first page.
+     */
+    public void start() {
+        pipeline.executor().execute(() -> {
+            if (stopped || !pages.isEmpty()) return;
+            Page first = new Page(null);
+            pages.add(first);
+            attach(first);
+        });
+    }
+
+    /**
+     * Reports the current scroll position. Loads pages the viewport is approaching and
+     * evicts pages that are far away from it.
+     * @param firstVisible Adapter position of the first visible row.
+     * @param lastVisible Adapter position of the last visible row.
+     */
+    public void onScrolled(int firstVisible, int lastVisible) {
+        pipeline.executor().execute(() -> {
+            if (stopped || firstVisible < 0) return;
+            updateWindow(firstVisible, lastVisible);
+        });
+    }
+
+    /**
+     * Detaches all listeners. The pager cannot be restarted.
+     */
+    public void stop() {
+        pipeline.executor().execute(() -> {
+            stopped = true;
+            for (Page page : pages) detach(page);
+        });
+    }
+
+    // --- Window Management (executor thread) ---
+
+    private void updateWindow(int firstVisible, int lastVisible) {
+        int firstResident = -1, lastResident = -1;
+        for (int i = 0; i < pages.size(); i++) {
+            if (!pages.get(i).isResident()) continue;
+            if (firstResident < 0) firstResident = i;
+            lastResident = i;
+        }
+        if (firstResident < 0) return;
+        // Positions are in the displayed list, which a search or hidden items may have
+        // thinned out; ask it which pages the visible rows came from.
+        int total = pipeline.displayedSize();
+        int firstVisiblePage = pageAt(firstVisible, lastResident);
+        int lastVisiblePage = Math.max(firstVisiblePage, pageAt(lastVisible, lastResident));
+
+        // Prefetch ahead of the scroll position in both directions.
+        if (lastVisible >= total - PREFETCH_DISTANCE) {
+            loadAfter(lastResident);
+        }
+        if (firstVisible < PREFETCH_DISTANCE && firstResident > 0) {
+            attach(pages.get(firstResident - 1));
+        }
+
+        // Evict pages that are far away from what is on screen.
+        for (int i = 0; i < pages.size(); i++) {
+            if (i < firstVisiblePage - KEEP_PAGES || i > lastVisiblePage + KEEP_PAGES) {
+                Page page = pages.get(i);
+                if (page.isResident()) {
+                    detach(page);
+                    pipeline.evict(page);
+                }
+            }
+        }
+    }
+
+    // The index of the page that owns a displayed position, or the fallback if the
+    // position is out of range (e.g. the list changed since it was reported).
+    private int pageAt(int position, int fallback) {
+        Object owner = pipeline.ownerAt(position);
+        int index = (owner != null) ? pages.indexOf(owner) : -1;
+        return (index >= 0) ? index : fallback;
+    }
+
+    // Makes the page after the given one resident, creating it if it was never loaded.
+    private void loadAfter(int index) {
+        if (index + 1 < pages.size()) {
+            attach(pages.get(index + 1));
+            return;
+        }
+        Page tail = pages.get(index);
+        // Wait for the tail's first snapshot, and stop once the query is exhausted.
+        if (tail.loadedSize < PAGE_SIZE || tail.lastSeen == null) return;
+
+        // Fix the tail's boundary so it no longer competes with the new page for documents.
+        // A resident tail keeps its limit() listener, whose snapshots are cut at the
+        // boundary, rather than paying for a new listener that reads the page again; the
+        // next attach uses endAt().
+        tail.endAt = tail.lastSeen;
+        tail.boundary = ItemCodec.decode(tail.endAt);
+
+        Page next = new Page(tail.endAt);
+        pages.add(next);
+        attach(next);
+    }
+
+    private void attach(@NonNull Page page) {
+        if (page.isResident()) return;
+        Query q = query;
+        if (page.startAfter != null) q = q.startAfter(page.startAfter);
+        q = (page.endAt != null) ? q.endAt(page.endAt) : q.limit(PAGE_SIZE);
+
+        int generation = ++page.generation;
+        page.resident = true;
+        page.openListener = false;
+        if (mode == ReadMode.CACHE_FIRST) {
+            Executor executor = pipeline.executor();
+            // The tail page is complete with a full page, a bounded one with as many
+            // documents as it had when last read; a shorter cached result is partial.
+            int expected = (page.endAt != null) ? page.loadedSize : PAGE_SIZE;
+            FirestoreConfig.getCacheFirst(q, expected, executor).addOnCompleteListener(executor, task -> {
+                // Ignore a read that finished after the page was detached.
+                if (stopped || page.generation != generation) return;
+                if (!task.isSuccessful()) {
+                    pipeline.postError(task.getException());
+                    return;
+                }
+                onPageSnapshot(page, task.getResult());
+            });
+            return;
+        }
+        page.openListener = page.endAt == null;
+        page.registration = q.addSnapshotListener(pipeline.executor(), (snap, e) -> {
+            // Ignore events still queued from a listener that was detached meanwhile.
+            if (stopped || page.generation != generation) return;
+            if (e != null) {
+                pipeline.postError(e);
+                return;
+            }
+            if (snap != null) onPageSnapshot(page, snap);
+        });
+    }
+
+    private void detach(@NonNull Page page) {
+        if (!page.resident) return;
+        if (page.registration != null) {
+            page.registration.remove();
+            page.registration = null;
+        }
+        page.resident = false;
+        page.generation++;
+    }
+
+    private void onPageSnapshot(@NonNull Page page, @NonNull QuerySnapshot snap) {
+        page.loadedSize = snap.size();
+        if (!snap.isEmpty()) {
+            page.lastSeen = snap.getDocuments().get(snap.size() - 1);
+        }
+        if (page.openListener && page.boundary != null) {
+            applyWithinBoundary(page, snap);
+        } else {
+            pipeline.apply(page, snap);
+        }
+    }
+
+    /**
+     * Applies a snapshot of a page whose boundary was fixed while its limit() listener
+     * stayed attached. Documents past the boundary belong to the next page, so they are
+     * dropped (and removed, if this page held them). A document at or before the boundary
+     * that leaves the result was pushed out by the limit, as inserts grow the page, and
+     * is kept; deletions arrive as tombstones, not as removals.
+     */
+    private void applyWithinBoundary(@NonNull Page page, @NonNull QuerySnapshot snap) {
+        List<SimpleItem> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        for (DocumentChange change : snap.getDocumentChanges(MetadataChanges.EXCLUDE)) {
+            SimpleItem item = ItemCodec.decode(change.getDocument());
+            boolean within = ItemOrder.BY_TITLE.compare(item, page.boundary) <= 0;
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                if (!within) removals.add(item.id);
+            } else if (!within || item.deleted) {
+                removals.add(item.id);
+            } else {
+                upserts.add(item);
+            }
+        }
+        pipeline.apply(page, upserts, removals);
+    }
+}
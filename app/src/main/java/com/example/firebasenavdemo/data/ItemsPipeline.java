@@ -0,0 +1,306 @@
+package com.example.firebasenavdemo.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.ItemList;
+import com.example.firebasenavdemo.core.ItemSearchIndex;
+import com.example.firebasenavdemo.core.ItemsUpdate;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.example.firebasenavdemo.perf.PerfMetrics;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A background data pipeline for the items list.
+ * Snapshots are received on a dedicated single-thread executor, where documents are
+ * decoded and handed to an {@link ItemList}, which keeps them sorted, searchable and
+ * turns them into list operations. Only the finished immutable list and its operations
+ * (an {@link ItemsUpdate}) are handed to the main thread.
+ *
+ * <p>Handoff is aligned to display frames: results are delivered at the start of the
+ * next frame, and every result produced before then is merged into that one delivery.
+ * A burst of snapshots (a local write and its server acknowledgement, or rapid edits
+ * from another device) therefore costs the UI at most one update per frame. Snapshots
+ * that carry no document changes, e.g. because only their pending-writes or from-cache
+ * metadata changed, are dropped before they reach the list.</p>
+ */
+public class ItemsPipeline {
+
+    /**
+     * Receives pipeline results. Both methods are called on the main thread.
+     */
+    public interface Listener {
+        void onItemsUpdated(@NonNull ItemsUpdate update);
+        void onItemsError(@NonNull Exception e);
+    }
+
+    /**
+     * Prepares items for display ahead of their bind, e.g. by measuring their text.
+     * Called on the pipeline's executor.
+     */
+    public interface ItemPreparer {
+        void prepare(@NonNull SimpleItem item);
+    }
+
+    // Snapshots with more changes than this (e.g. the initial load) are not prepared here;
+    // only the rows near the viewport will be bound soon, and the UI prefetches those.
+    private static final int PREPARE_LIMIT = 64;
+
+    // --- Threading ---
+    private final SerialWorker executor = new SerialWorker("items-pipeline");
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer choreographer;
+    private final Choreographer.FrameCallback drainFrame = frameTimeNanos -> drain();
+    private final Listener listener;
+    private volatile boolean closed;
+    @Nullable private volatile ItemPreparer preparer;
+
+    // The newest result not yet taken by the main thread. A newer result merges into it
+    // instead of queueing behind it, so stale lists are never displayed and a burst
+    // within one frame is displayed once.
+    private final AtomicReference<ItemsUpdate> pending = new AtomicReference<>();
+    // When the current pending result started waiting, for the handoff latency metric.
+    private volatile long pendingSince;
+
+    // --- Pipeline State (confined to the executor thread) ---
+    private final ItemList list = new ItemList();
+
+    /**
+     * @param listener The main-thread receiver of finished updates.
+     */
+    @MainThread
+    public ItemsPipeline(@NonNull Listener listener) {
+        this.listener = listener;
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * Attaches a snapshot listener whose callbacks run on the pipeline's executor.
+     * @param query The query to listen to.
+     * @return The registration; remove it before calling {@link #close()}.
+     */
+    @NonNull
+    public ListenerRegistration listen(@NonNull Query query) {
+        return query.addSnapshotListener(executor, (snap, e) -> {
+            if (e != null) {
+                postError(e);
+                return;
+            }
+            if (snap != null) {
+                apply(this, snap);
+            }
+        });
+    }
+
+    /**
+     * Stops delivering results and shuts down the executor once the tasks already
+     * queued (such as detaching listeners) have run.
+     */
+    public void close() {
+        closed = true;
+        executor.shutdownWhenIdle();
+    }
+
+    /**
+     * Sets the hook that prepares changed items before their update is published.
+     * @param preparer The hook, or null to stop preparing.
+     */
+    public void setPreparer(@Nullable ItemPreparer preparer) {
+        this.preparer = preparer;
+    }
+
+    /**
+     * Filters the displayed list to items whose title or subtitle words start with the
+     * query's words, ignoring case and accents. Any thread.
+     * @param text The raw search text; blank shows every item.
+     */
+    public void setQuery(@Nullable String text) {
+        ItemSearchIndex.Query next = ItemSearchIndex.parse(text);
+        executor.execute(() -> publishIfChanged(list.setQuery(next)));
+    }
+
+    /**
+     * Sorts items by the rules of a locale instead of by code point, e.g. so accented
+     * titles sort next to their unaccented letters. Any thread.
+     * @param locale The locale to sort for, or null for the server's order.
+     */
+    public void setSortLocale(@Nullable Locale locale) {
+        executor.execute(() -> publishIfChanged(list.setSortLocale(locale)));
+    }
+
+    /**
+     * Hides items from the displayed list without dropping them, e.g. while their
+     * deletion is pending. Any thread.
+     * @param ids The ids of the items to hide.
+     */
+    public void hide(@NonNull Collection<String> ids) {
+        List<String> copy = new ArrayList<>(ids);
+        executor.execute(() -> publishIfChanged(list.hide(copy)));
+    }
+
+    /**
+     * Shows hidden items again, unless they were removed in the meantime. Any thread.
+     * @param ids The ids of the items to show.
+     */
+    public void unhide(@NonNull Collection<String> ids) {
+        List<String> copy = new ArrayList<>(ids);
+        executor.execute(() -> publishIfChanged(list.unhide(copy)));
+    }
+
+    // --- Source API (used by ItemsPager and ItemsRepository; executor thread only) ---
+
+    /** The executor all pipeline state is confined to. */
+    @NonNull
+    Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Applies the changes of one source's snapshot. A document may move between
+     * sources (e.g. to a neighbouring page), so removals only count for the current owner.
+     * @param source The listener the snapshot came from.
+     * @param snap The snapshot.
+     */
+    void apply(@NonNull Object source, @NonNull QuerySnapshot snap) {
+        List<SimpleItem> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        decode(snap, upserts, removals);
+        apply(source, upserts, removals);
+    }
+
+    /**
+     * Applies already decoded changes on behalf of a source.
+     * @param source The source of the changes.
+     * @param upserts Added or modified items.
+     * @param removals Ids of removed documents.
+     */
+    void apply(@NonNull Object source, @NonNull List<SimpleItem> upserts, @NonNull List<String> removals) {
+        // Nothing to do for a snapshot that only changed metadata.
+        if (upserts.isEmpty() && removals.isEmpty()) return;
+        ItemsUpdate update;
+        long t = PerfMetrics.begin(PerfMetrics.ITEMS_APPLY);
+        try {
+            update = list.apply(source, upserts, removals);
+        } finally {
+            PerfMetrics.end(PerfMetrics.ITEMS_APPLY, t);
+        }
+        ItemPreparer p = preparer;
+        if (p != null && upserts.size() <= PREPARE_LIMIT) {
+            long tp = PerfMetrics.begin(PerfMetrics.ITEMS_PREPARE);
+            try {
+                for (SimpleItem item : upserts) p.prepare(item);
+            } finally {
+                PerfMetrics.end(PerfMetrics.ITEMS_PREPARE, tp);
+            }
+        }
+        publishIfChanged(update);
+    }
+
+    /**
+     * Converts the document changes of a snapshot into items and removed ids.
+     * Only added or modified documents are mapped; unchanged ones are not touched, and
+     * neither are documents whose metadata alone changed (e.g. a local write that the
+     * server acknowledged), even if the listener includes metadata changes. Tombstones
+     * count as removals.
+     * @return The latest {@code updatedAt} among the changed documents, or 0.
+     */
+    static long decode(@NonNull QuerySnapshot snap, @NonNull List<SimpleItem> upserts,
+                       @NonNull List<String> removals) {
+        long t = PerfMetrics.begin(PerfMetrics.ITEMS_DECODE);
+        try {
+            long latest = 0;
+            for (DocumentChange change : snap.getDocumentChanges(MetadataChanges.EXCLUDE)) {
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    removals.add(change.getDocument().getId());
+                    continue;
+                }
+                SimpleItem item = ItemCodec.decode(change.getDocument());
+                latest = Math.max(latest, item.updatedAt);
+                if (item.deleted) {
+                    removals.add(item.id);
+                } else {
+                    upserts.add(item);
+                }
+            }
+            return latest;
+        } finally {
+            PerfMetrics.end(PerfMetrics.ITEMS_DECODE, t);
+        }
+    }
+
+    /**
+     * Drops every item owned by a source, e.g. a page that scrolled far off-screen.
+     * @param source The source whose items are removed.
+     * @return The ids of the removed items.
+     */
+    @NonNull
+    List<String> evict(@NonNull Object source) {
+        List<String> ids = new ArrayList<>();
+        publishIfChanged(list.evict(source, ids));
+        return ids;
+    }
+
+    /** The number of displayed items, i.e. adapter positions. */
+    int displayedSize() {
+        return list.displayedSize();
+    }
+
+    /** Returns the source of the item at a displayed (adapter) position, or null. */
+    @Nullable
+    Object ownerAt(int position) {
+        return list.ownerAt(position);
+    }
+
+    /** Delivers an error to the listener on the main thread. */
+    void postError(@NonNull Exception e) {
+        mainHandler.post(() -> {
+            if (!closed) listener.onItemsError(e);
+        });
+    }
+
+    private void publishIfChanged(@Nullable ItemsUpdate update) {
+        if (update != null) publish(update);
+    }
+
+    // Hands a result to the next frame, merging it into any result still waiting for it.
+    private void publish(@NonNull ItemsUpdate update) {
+        ItemsUpdate prev;
+        ItemsUpdate merged;
+        do {
+            prev = pending.get();
+            merged = (prev == null) ? update : prev.then(update);
+        } while (!pending.compareAndSet(prev, merged));
+
+        // Only the first waiting result needs a drain; later ones ride along with it.
+        if (prev == null) {
+            pendingSince = System.nanoTime();
+            choreographer.postFrameCallback(drainFrame);
+        }
+    }
+
+    // Main thread, at the start of a frame: deliver whatever is newest.
+    private void drain() {
+        ItemsUpdate update = pending.getAndSet(null);
+        if (update == null) return;
+        PerfMetrics.record(PerfMetrics.ITEMS_HANDOFF, System.nanoTime() - pendingSince);
+        if (!closed) {
+            listener.onItemsUpdated(update);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.firebasenavdemo.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.ItemsUpdate;
+import com.google.firebase.firestore.Query;
+
+import java.util.Locale;
+
+/**
+ * Starts loading a user's items before the items screen is opened, as soon as the
+ * user id is known (after sign-in, or when a session is restored at startup).
+ *
+ * <p>A prefetch runs exactly what the items screen would run: a pipeline fed by the
+ * offline-first repository, or by the pager's first page. Its listener fills the
+ * Firestore cache while the decoded, sorted list builds up in the pipeline. The screen
+ * then {@linkplain #take(String) takes over} the running session instead of starting
+ * cold, and receives the newest list at once.</p>
+ *
+ * <p>A session nobody takes within {@value #IDLE_TIMEOUT_MS} ms is stopped, so a user
+ * who never opens the items screen does not keep a listener attached. All methods are
+ * called on the main thread.</p>
+ */
+public final class ItemsPrefetcher {
+
+    // How long an untaken session keeps its listener attached.
+    private static final long IDLE_TIMEOUT_MS = 2 * 60 * 1000;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    @Nullable private static Session current;
+
+    private ItemsPrefetcher() {}
+
+    /**
+     * A running pipeline and its source, waiting to be taken over. Until a listener is
+     * attached, only the newest update and error are kept.
+     */
+    public static final class Session implements ItemsPipeline.Listener {
+
+        private final String uid;
+        private final ItemsPipeline pipeline;
+        @Nullable private final ItemsRepository repository;
+        @Nullable private final ItemsPager pager;
+
+        @Nullable private ItemsPipeline.Listener target;
+        @Nullable private ItemsUpdate latest;
+        @Nullable private Exception error;
+
+        private Session(@NonNull Context context, @NonNull String uid, @NonNull Query query,
+                        @Nullable ItemsPager.ReadMode paging, @Nullable Locale sortLocale) {
+            this.uid = uid;
+            this.pipeline = new ItemsPipeline(this);
+            // The order must be set before the first items arrive, so they are sorted once.
+            if (sortLocale != null) pipeline.setSortLocale(sortLocale);
+            if (paging != null) {
+                repository = null;
+                pager = new ItemsPager(query, pipeline, paging);
+                pager.start();
+            } else {
+                repository = new ItemsRepository(ItemStore.get(context), uid, query, pipeline);
+                pager = null;
+                repository.start();
+            }
+        }
+
+        /** The pipeline, already receiving the user's items. */
+        @NonNull
+        public ItemsPipeline getPipeline() {
+            return pipeline;
+        }
+
+        /** The running repository, or null if the session pages. */
+        @Nullable
+        public ItemsRepository getRepository() {
+            return repository;
+        }
+
+        /** The running pager, or null if the session mirrors the whole collection. */
+        @Nullable
+        public ItemsPager getPager() {
+            return pager;
+        }
+
+        /**
+         * Forwards everything from now on to a listener, starting with the newest update
+         * and any error received so far.
+         * @param listener The new owner's receiver of pipeline results.
+         */
+        @MainThread
+        public void attach(@NonNull ItemsPipeline.Listener listener) {
+            target = listener;
+            if (latest != null) listener.onItemsUpdated(latest);
+            if (error != null) listener.onItemsError(error);
+            latest = null;
+            error = null;
+        }
+
+        @Override
+        public void onItemsUpdated(@NonNull ItemsUpdate update) {
+            if (target != null) {
+                target.onItemsUpdated(update);
+            } else {
+                // The first receiver binds in full, so only the newest list matters.
+                latest = update;
+            }
+        }
+
+        @Override
+        public void onItemsError(@NonNull Exception e) {
+            if (target != null) target.onItemsError(e); else error = e;
+        }
+
+        // Stops a session that was never taken.
+        private void close() {
+            if (repository != null) repository.stop();
+            if (pager != null) pager.stop();
+            pipeline.close();
+        }
+    }
+
+    /**
+     * Starts prefetching a user's items, unless a session for that user is already
+     * running. A session for another user is stopped.
+     * @param context Any context; the application context is used for the item store.
+     * @param uid The signed-in user's id.
+     * @param query The ordered query the items screen uses.
+     * @param paging The pager's read mode to load only the first page, as the pager would,
+     *               or null to load everything through the item store.
+     * @param sortLocale The locale to sort by, or null for the server's order.
+     */
+    @MainThread
+    public static void prefetch(@NonNull Context context, @NonNull String uid, @NonNull Query query,
+                                @Nullable ItemsPager.ReadMode paging, @Nullable Locale sortLocale) {
+        if (current != null) {
+            if (current.uid.equals(uid)) return;
+            cancel();
+        }
+        current = new Session(context.getApplicationContext(), uid, query, paging, sortLocale);
+        mainHandler.postDelayed(ItemsPrefetcher::cancel, IDLE_TIMEOUT_MS);
+    }
+
+    /**
+     * Hands over the prefetched session for a user. The caller owns it from then on and
+     * must stop its source and close its pipeline when done.
+     * @param uid The signed-in user's id.
+     * @return The running session, or null if none was prefetched for this user.
+     */
+    @MainThread
+    @Nullable
+    public static Session take(@NonNull String uid) {
+        Session session = current;
+        if (session == null || !session.uid.equals(uid)) return null;
+        current = null;
+        mainHandler.removeCallbacksAndMessages(null);
+        return session;
+    }
+
+    /**
+     * Stops any session that has not been taken, e.g. when the user signs out.
+     */
+    @MainThread
+    public static void cancel() {
+        mainHandler.removeCallbacksAndMessages(null);
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.firebasenavdemo.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.example.firebasenavdemo.perf.PerfMetrics;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Offline-first access to a user's items, with the local {@link ItemStore} as the
+ * single source of truth for what is displayed.
+ *
+ * <p>On start, the stored rows are pushed through the {@link ItemsPipeline} at once, so
+ * the list shows the last known state without waiting for Firestore. The live listener
+ * then applies every change both to the pipeline and, in one transaction per snapshot,
+ * to the store.</p>
+ *
+ * <p>The first time, the listener covers the whole collection, and stored rows that
+ * were deleted remotely are dropped after the first snapshot confirmed by the server.
+ * From then on the store has a sync point, and the listener only covers documents
+ * written after it (the given query, filtered to {@code updatedAt} greater than the
+ * point), deletions included as tombstones; unchanged items are not transferred again.
+ * Every snapshot confirmed by the server advances the sync point, as does
+ * {@link ItemsSyncWorker} in the background. A sync point older than the tombstones'
+ * lifetime does not count, as deletions since then may have been purged.</p>
+ *
+ * <p>A pending {@code serverTimestamp()} does not match the filter until the server has
+ * set it, so with a sync point the listener would only show an item added here once the
+ * write was acknowledged. Items added through {@link #add} are therefore listed at once
+ * by their own source, until the listener delivers them.</p>
+ *
+ * <p>Snapshot handling and all store I/O run on the pipeline's executor.</p>
+ */
+public class ItemsRepository {
+
+    private final ItemStore store;
+    private final String uid;
+    private final Query query;
+    private final ItemsPipeline pipeline;
+
+    // Owner of the rows loaded from disk until a full listener confirms or removes them.
+    private final Object storeSource = new Object();
+    // Owner of everything delivered by the Firestore listener.
+    private final Object liveSource = new Object();
+    // Owner of items added here that the listener has not delivered yet.
+    private final Object localSource = new Object();
+
+    private ListenerRegistration registration;
+    private boolean reconciled;
+    private PerfMetrics.AsyncSpan serverWait;
+    // --- Sync State (confined to the pipeline's executor) ---
+    private boolean delta;        // The listener only covers changes after the sync point.
+    private long storedSyncPoint; // -1 until the collection was read in full once.
+    private long latestSeen;      // The latest updatedAt delivered so far.
+    private final Set<String> localAdds = new HashSet<>(); // Ids owned by localSource.
+
+    /**
+     * @param store The local item table.
+     * @param uid The signed-in user's id.
+     * @param query The ordered query over the user's items collection. Once it was read
+     *              in full, only its documents changed since are listened to.
+     * @param pipeline The pipeline feeding the UI.
+     */
+    public ItemsRepository(@NonNull ItemStore store, @NonNull String uid,
+                           @NonNull Query query, @NonNull ItemsPipeline pipeline) {
+        this.store = store;
+        this.uid = uid;
+        this.query = query;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Shows the stored items, then attaches the live listener.
+     */
+    public void start() {
+        serverWait = PerfMetrics.beginAsync(PerfMetrics.ITEMS_FIRST_SERVER_SNAPSHOT);
+        pipeline.executor().execute(() -> {
+            storedSyncPoint = store.syncPoint(uid);
+            delta = storedSyncPoint >= 0;
+            // The delta keeps the query's order, which needs a composite index on
+            // (title, updatedAt); see firestore.indexes.json.
+            Query live = delta
+                    ? query.whereGreaterThan(ItemCodec.UPDATED_AT, ItemCodec.timestamp(storedSyncPoint))
+                    : query;
+            // Metadata changes are included so that a server confirmation of an unchanged
+            // cached result still arrives and can trigger reconciliation. Its callbacks
+            // queue behind the local read below.
+            registration = live.addSnapshotListener(pipeline.executor(), MetadataChanges.INCLUDE,
+                    (snap, e) -> {
+                        if (e != null) {
+                            pipeline.postError(e);
+                            return;
+                        }
+                        if (snap != null) onSnapshot(snap);
+                    });
+            // Render the last known state first; this is a local read only. With a sync
+            // point the stored rows are complete up to it and the listener only adds what
+            // changed since, so its removals must apply to the stored rows too.
+            pipeline.apply(delta ? liveSource : storeSource, store.load(uid), Collections.emptyList());
+        });
+    }
+
+    /**
+     * Detaches the live listener. The stored rows remain for the next start.
+     */
+    public void stop() {
+        // The listener is attached on the executor; detach it there too.
+        pipeline.executor().execute(() -> {
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        });
+    }
+
+    /**
+     * Writes a new item and lists it at once. The stored rows only get it from the
+     * listener, once the server has confirmed it.
+     * @param doc The new item's document, e.g. {@code collection.document()}.
+     * @param item The item; its id is set to the document's.
+     * @return The write's task.
+     */
+    @NonNull
+    public Task<Void> add(@NonNull DocumentReference doc, @NonNull SimpleItem item) {
+        String id = doc.getId();
+        item.id = id;
+        // Queued before the write, so it is applied before the listener can deliver it.
+        pipeline.executor().execute(() -> {
+            localAdds.add(id);
+            pipeline.apply(localSource, Collections.singletonList(item), Collections.emptyList());
+        });
+        return doc.set(ItemCodec.encode(item)).addOnCompleteListener(pipeline.executor(), task -> {
+            // A failed write never reaches the listener.
+            if (!task.isSuccessful() && localAdds.remove(id)) {
+                pipeline.apply(localSource, Collections.emptyList(), Collections.singletonList(id));
+            }
+        });
+    }
+
+    private void onSnapshot(@NonNull QuerySnapshot snap) {
+        List<SimpleItem> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        latestSeen = Math.max(latestSeen, ItemsPipeline.decode(snap, upserts, removals));
+
+        // Update the UI first; the disk write happens after the result is on its way.
+        pipeline.apply(liveSource, upserts, removals);
+        if (!localAdds.isEmpty()) releaseLocalAdds(upserts, removals);
+
+        boolean fromServer = !snap.getMetadata().isFromCache();
+        if (!reconciled && fromServer) {
+            reconciled = true;
+            serverWait.end();
+            // Once the server has confirmed the full result, any row still owned by the
+            // store no longer exists remotely.
+            if (!delta) removals.addAll(pipeline.evict(storeSource));
+        }
+        // A server-confirmed snapshot includes every change up to its read time, so the
+        // store is complete up to the latest write seen. A cached one may have gaps.
+        long syncPoint = -1;
+        if (fromServer && latestSeen > storedSyncPoint) {
+            syncPoint = storedSyncPoint = latestSeen;
+        }
+        // A metadata-only snapshot (such as the acknowledgement of a local write) that
+        // does not advance the sync point has nothing to store.
+        store.apply(uid, upserts, removals, syncPoint);
+    }
+
+    // The listener's source took over the added items it delivered. One deleted before
+    // the listener saw it arrives as a removal, which only counts for its owner.
+    private void releaseLocalAdds(@NonNull List<SimpleItem> upserts, @NonNull List<String> removals) {
+        for (SimpleItem item : upserts) localAdds.remove(item.id);
+        List<String> dropped = new ArrayList<>();
+        for (String id : removals) {
+            if (localAdds.remove(id)) dropped.add(id);
+        }
+        pipeline.apply(localSource, Collections.emptyList(), dropped);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.firebasenavdemo.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Periodically brings the signed-in user's {@link ItemStore} up to date in the background,
+ * so the next time the items screen opens its listener has little or nothing left to
+ * transfer.
+ *
+ * <p>Only documents written after the store's sync point are read
+ * ({@code updatedAt > syncPoint}), in pages of {@value #PAGE_SIZE} ordered by
+ * {@code (updatedAt, document id)}, which is also the cursor between pages: one batched
+ * write gives all its documents the same timestamp, so a page can end in the middle of
+ * them. Each page goes into the store in one transaction that also advances the sync
+ * point, and, being a server read, into Firestore's local cache. The sync point only
+ * moves past timestamps whose documents have all been read, so a run that stops between
+ * pages loses nothing. Tombstones delete their rows. A user whose items were never read
+ * in full has no sync point; that first full read is left to the items screen.</p>
+ *
+ * <p>Each run also purges the user's tombstones older than
+ * {@link ItemCodec#TOMBSTONE_TTL_MS}, so full reads and bulk deletes do not keep reading
+ * deletions every device has long since applied. A device that has not synced for that
+ * long has no valid sync point any more (see {@link ItemStore#syncPoint}) and reads the
+ * collection in full again.</p>
+ */
+public class ItemsSyncWorker extends Worker {
+
+    private static final String WORK_NAME = "items-delta-sync";
+    private static final long INTERVAL_HOURS = 6;
+    private static final int PAGE_SIZE = 500;
+    // How long one page read may take before the run is retried later.
+    private static final long READ_TIMEOUT_SECONDS = 60;
+
+    public ItemsSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the periodic sync, unless it is already scheduled. Runs need a network.
+     * @param context Any context.
+     */
+    public static void schedule(@NonNull Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                ItemsSyncWorker.class, INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Cancels the periodic sync, e.g. when the user signs out.
+     * @param context Any context.
+     */
+    public static void cancel(@NonNull Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return Result.success();
+        String uid = user.getUid();
+        ItemStore store = ItemStore.get(getApplicationContext());
+        CollectionReference items = FirestoreConfig.db()
+                .collection("users").document(uid).collection("items");
+        try {
+            long syncPoint = store.syncPoint(uid);
+            if (syncPoint >= 0) sync(store, uid, items, syncPoint);
+            purgeTombstones(items);
+            return Result.success();
+        } catch (ExecutionException | TimeoutException e) {
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    private void sync(@NonNull ItemStore store, @NonNull String uid, @NonNull CollectionReference items,
+                      long syncPoint) throws ExecutionException, TimeoutException, InterruptedException {
+        Query changed = items
+                .whereGreaterThan(ItemCodec.UPDATED_AT, ItemCodec.timestamp(syncPoint))
+                .orderBy(ItemCodec.UPDATED_AT)
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        DocumentSnapshot last = null;
+        while (!isStopped()) {
+            Query page = (last == null) ? changed : changed.startAfter(last);
+            QuerySnapshot snap = Tasks.await(page.get(Source.SERVER), READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            List<DocumentSnapshot> docs = snap.getDocuments();
+            boolean lastPage = docs.size() < PAGE_SIZE;
+            List<SimpleItem> upserts = new ArrayList<>();
+            List<String> removals = new ArrayList<>();
+            // The page's latest timestamp, and the latest one before it.
+            long latest = -1;
+            long complete = -1;
+            for (DocumentSnapshot doc : docs) {
+                SimpleItem item = ItemCodec.decode(doc);
+                if (item.updatedAt > latest) {
+                    complete = latest;
+                    latest = item.updatedAt;
+                }
+                if (item.deleted) {
+                    removals.add(item.id);
+                } else {
+                    upserts.add(item);
+                }
+            }
+            // Pages are in updatedAt order, so everything up to this page's last
+            // write is now stored, except that the next page may hold more documents
+            // with that last timestamp; -1 keeps the sync point where it is.
+            store.apply(uid, upserts, removals, lastPage ? latest : complete);
+            if (lastPage) return;
+            last = docs.get(docs.size() - 1);
+        }
+    }
+
+    // Deletes the tombstones that outlived ItemCodec.TOMBSTONE_TTL_MS, a page per batch.
+    private void purgeTombstones(@NonNull CollectionReference items)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        Query expired = items
+                .whereEqualTo(ItemCodec.DELETED, true)
+                .whereLessThan(ItemCodec.UPDATED_AT,
+                        ItemCodec.timestamp(System.currentTimeMillis() - ItemCodec.TOMBSTONE_TTL_MS))
+                .limit(PAGE_SIZE);
+        while (!isStopped()) {
+            QuerySnapshot snap = Tasks.await(expired.get(Source.SERVER), READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (snap.isEmpty()) return;
+            WriteBatch batch = items.getFirestore().batch();
+            for (DocumentSnapshot doc : snap.getDocuments()) batch.delete(doc.getReference());
+            Tasks.await(batch.commit(), READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (snap.size() < PAGE_SIZE) return;
+        }
+    }
+}
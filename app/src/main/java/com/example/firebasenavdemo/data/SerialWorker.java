@@ -0,0 +1,38 @@
+package com.example.firebasenavdemo.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A named single-thread executor for Firestore listener and task callbacks.
+ * After {@link #shutdownWhenIdle()}, late callbacks (e.g. a snapshot already in flight)
+ * are silently dropped instead of throwing on the SDK's thread.
+ */
+final class SerialWorker implements Executor {
+
+    private final ExecutorService backing;
+
+    SerialWorker(@NonNull String name) {
+        backing = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        try {
+            backing.execute(command);
+        } catch (RejectedExecutionException ignored) {
+            // Shut down.
+        }
+    }
+
+    /**
+     * Lets the tasks already queued run, then stops the thread.
+     */
+    void shutdownWhenIdle() {
+        execute(backing::shutdown);
+    }
+}
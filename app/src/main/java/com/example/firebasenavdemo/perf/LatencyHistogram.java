@@ -0,0 +1,83 @@
+package com.example.firebasenavdemo.perf;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with power-of-two microsecond buckets
+ * (under 1 µs, 1-2 µs, 2-4 µs, ... up to about 35 minutes). Recording is a handful of
+ * atomic increments, so it is cheap enough for per-row bind timing on the main thread.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one sample.
+     * @param nanos The measured duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) return;
+        long micros = nanos / 1000;
+        int bucket = (micros == 0) ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sumNanos.addAndGet(nanos);
+        long max;
+        do {
+            max = maxNanos.get();
+        } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+    }
+
+    /** The number of samples recorded. */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Returns an upper bound for the given percentile, in microseconds.
+     * @param percentile A value between 0 and 100.
+     * @return The bucket bound, or 0 if there are no samples.
+     */
+    public long percentileMicros(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return 1L << i;
+        }
+        return maxNanos.get() / 1000;
+    }
+
+    /** Clears all samples. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        sumNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * One line summary: count, mean, p50, p90, p99 and max, in milliseconds.
+     */
+    @NonNull
+    public String summary() {
+        long n = count.get();
+        if (n == 0) return "n=0";
+        return String.format(Locale.US, "n=%d mean=%.3f p50<=%.3f p90<=%.3f p99<=%.3f max=%.3f ms",
+                n, sumNanos.get() / 1e6 / n,
+                percentileMicros(50) / 1e3, percentileMicros(90) / 1e3,
+                percentileMicros(99) / 1e3, maxNanos.get() / 1e6);
+    }
+}
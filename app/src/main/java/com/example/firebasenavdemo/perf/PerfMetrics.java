@@ -0,0 +1,220 @@
+package com.example.firebasenavdemo.perf;
+
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.metrics.performance.FrameData;
+import androidx.metrics.performance.JankStats;
+import androidx.metrics.performance.PerformanceMetricsState;
+import androidx.tracing.Trace;
+
+import com.example.firebasenavdemo.BuildConfig;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot-path instrumentation for the data to UI pipeline.
+ *
+ * <p>Each stage is bracketed with an {@code androidx.tracing} section, so it shows up in
+ * system traces and Macrobenchmark results, and its duration is recorded in a
+ * per-stage {@link LatencyHistogram}. Frames are reported by JankStats, and in debug
+ * builds main-thread stalls by {@link StallWatchdog}. Everything can be read back as a
+ * text dump (see {@link #dump()}), e.g. from the debug metrics screen.</p>
+ *
+ * <p>Trace sections are always emitted; they cost next to nothing unless a trace is being
+ * recorded, and benchmarks of release builds read them. Histograms and JankStats are only
+ * collected if {@link #ENABLED}: in debug builds, or in a release build made with
+ * {@code -PperfMetrics=true}.</p>
+ *
+ * <p>Synchronous stages use {@link #begin(String)} and {@link #end(String, long)} on the
+ * same thread, with {@code end} in a {@code finally} block so an exception cannot leave
+ * the section open; work that completes in a callback uses {@link #beginAsync(String)}.</p>
+ */
+public final class PerfMetrics {
+
+    /** Whether durations and frames are collected in this build. */
+    public static final boolean ENABLED = BuildConfig.PERF_METRICS;
+
+    // --- Stage Names (also the trace section names) ---
+    /** Listener attach until the first snapshot confirmed by the server (network wait). */
+    public static final String ITEMS_FIRST_SERVER_SNAPSHOT = "items.firstServerSnapshot";
+    /** Mapping snapshot documents to items. */
+    public static final String ITEMS_DECODE = "items.decode";
+    /** Sorting and diffing decoded changes into the displayed list. */
+    public static final String ITEMS_APPLY = "items.apply";
+    /** Preparing changed items for display (measuring their row text) after an apply. */
+    public static final String ITEMS_PREPARE = "items.prepare";
+    /** A finished update waiting for the main thread (snapshot delivery to the UI). */
+    public static final String ITEMS_HANDOFF = "items.handoff";
+    /** Handing an update to the adapter. */
+    public static final String ITEMS_SUBMIT = "items.submit";
+    /** Creating a row ViewHolder. */
+    public static final String ROWS_CREATE = "rows.create";
+    /** Binding a row ViewHolder. */
+    public static final String ROWS_BIND = "rows.bind";
+    /** Email/password sign-in round trip. */
+    public static final String AUTH_SIGN_IN = "auth.signIn";
+    /** Account creation round trip. */
+    public static final String AUTH_SIGN_UP = "auth.signUp";
+    /** A cache-first read answered by the local cache (cache query time). */
+    public static final String FIRESTORE_CACHE_HIT = "firestore.cacheHit";
+    /** A cache-first read the local cache could not answer (cache query time). */
+    public static final String FIRESTORE_CACHE_MISS = "firestore.cacheMiss";
+    /** The server read that followed a cache miss. */
+    public static final String FIRESTORE_SERVER_READ = "firestore.serverRead";
+    /** Choosing a display language until the first frame drawn in it. */
+    public static final String LOCALE_SWITCH = "ui.localeSwitch";
+    /** A main-looper message that ran past one frame (debug builds, see StallWatchdog). */
+    public static final String MAIN_STALL = "main.stall";
+    /** Frame durations reported by JankStats. */
+    public static final String FRAMES = "frames";
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+    private static final AtomicInteger asyncCookies = new AtomicInteger();
+    private static final AtomicLong jankyFrames = new AtomicLong();
+
+    private PerfMetrics() {}
+
+    /**
+     * A stage that ends in a later callback, possibly on another thread.
+     */
+    public static final class AsyncSpan {
+        private final String stage;
+        private final int cookie;
+        private final long start;
+        private boolean ended;
+
+        AsyncSpan(@NonNull String stage) {
+            this.stage = stage;
+            this.cookie = asyncCookies.incrementAndGet();
+            this.start = SystemClock.elapsedRealtimeNanos();
+            Trace.beginAsyncSection(stage, cookie);
+        }
+
+        /** Ends the span and records its duration. Later calls are ignored. */
+        public synchronized void end() {
+            if (ended) return;
+            ended = true;
+            Trace.endAsyncSection(stage, cookie);
+            if (ENABLED) histogram(stage).record(SystemClock.elapsedRealtimeNanos() - start);
+        }
+    }
+
+    /**
+     * Opens a trace section for a synchronous stage.
+     * @param stage The stage name.
+     * @return A start token to pass to {@link #end(String, long)}.
+     */
+    public static long begin(@NonNull String stage) {
+        Trace.beginSection(stage);
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Closes the section opened by {@link #begin(String)} on this thread and records it.
+     * @param stage The stage name.
+     * @param token The value returned by {@code begin}.
+     */
+    public static void end(@NonNull String stage, long token) {
+        Trace.endSection();
+        if (ENABLED) histogram(stage).record(System.nanoTime() - token);
+    }
+
+    /**
+     * Starts a stage that completes asynchronously.
+     * @param stage The stage name.
+     */
+    @NonNull
+    public static AsyncSpan beginAsync(@NonNull String stage) {
+        return new AsyncSpan(stage);
+    }
+
+    /**
+     * Records a duration measured elsewhere, without a trace section.
+     * @param stage The stage name.
+     * @param nanos The duration in nanoseconds.
+     */
+    public static void record(@NonNull String stage, long nanos) {
+        if (ENABLED) histogram(stage).record(nanos);
+    }
+
+    /**
+     * Starts JankStats frame reporting for a window. Frame durations go to the
+     * {@value #FRAMES} histogram and janky frames are counted.
+     * @param window The activity's window.
+     * @return The tracker; enable and disable it with the activity's resume state.
+     *         Null if metrics are not collected in this build.
+     */
+    @Nullable
+    public static JankStats trackFrames(@NonNull Window window) {
+        return ENABLED ? JankStats.createAndTrack(window, PerfMetrics::onFrame) : null;
+    }
+
+    /**
+     * Tags subsequent frames of a view hierarchy with the current screen, so jank
+     * reports say where they happened.
+     * @param view Any view in the hierarchy.
+     * @param screen The screen name.
+     */
+    public static void setScreen(@NonNull View view, @NonNull String screen) {
+        if (!ENABLED) return;
+        PerformanceMetricsState state = PerformanceMetricsState.getHolderForHierarchy(view).getState();
+        if (state != null) state.putState("Screen", screen);
+    }
+
+    /**
+     * Returns a plain-text report of every stage, frame statistics and startup times.
+     */
+    @NonNull
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        if (!ENABLED) sb.append("Metrics are not collected in this build.\n");
+        sb.append("Device: ").append(Build.MANUFACTURER).append(' ').append(Build.MODEL)
+                .append(" (API ").append(Build.VERSION.SDK_INT).append(")\n");
+        sb.append("Startup: routing decision ").append(StartupMetrics.routingDecisionMs())
+                .append(" ms, first frame ").append(StartupMetrics.firstFrameMs()).append(" ms\n");
+        long frames = histogram(FRAMES).count();
+        long janky = jankyFrames.get();
+        sb.append("Janky frames: ").append(janky).append(" / ").append(frames);
+        if (frames > 0) sb.append(String.format(Locale.US, " (%.1f%%)", 100.0 * janky / frames));
+        long hits = histogram(FIRESTORE_CACHE_HIT).count();
+        long reads = hits + histogram(FIRESTORE_CACHE_MISS).count();
+        sb.append("\nCache-first reads from cache: ").append(hits).append(" / ").append(reads);
+        if (reads > 0) sb.append(String.format(Locale.US, " (%.1f%%)", 100.0 * hits / reads));
+        sb.append("\n\n");
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(stages).entrySet()) {
+            sb.append(e.getKey()).append(": ").append(e.getValue().summary()).append('\n');
+        }
+        String stalls = StallWatchdog.report();
+        if (!stalls.isEmpty()) sb.append('\n').append(stalls);
+        return sb.toString();
+    }
+
+    /** Clears all histograms, frame counts and stalls. Startup times are kept. */
+    public static void reset() {
+        for (LatencyHistogram h : stages.values()) h.reset();
+        jankyFrames.set(0);
+        StallWatchdog.reset();
+    }
+
+    @NonNull
+    private static LatencyHistogram histogram(@NonNull String stage) {
+        LatencyHistogram h = stages.get(stage);
+        return (h != null) ? h : stages.computeIfAbsent(stage, s -> new LatencyHistogram());
+    }
+
+    private static void onFrame(@Nullable FrameData frame) {
+        if (frame == null) return;
+        histogram(FRAMES).record(frame.getFrameDurationUiNanos());
+        if (frame.isJank()) jankyFrames.incrementAndGet();
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.firebasenavdemo.perf;
+
+import android.content.Context;
+import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+import android.util.Printer;
+import android.view.Display;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Debug-only detector of main-thread stalls and StrictMode violations.
+ *
+ * <p>The main looper reports the start and end of every message it dispatches. When a
+ * message runs past one frame budget, a background thread samples the main thread's
+ * stack at a fixed interval until the message finishes. Each stall is attributed to the
+ * app frame seen most often in its samples (or to the top frame if no app code was on
+ * the stack), and stalls are aggregated per call site. StrictMode violations are
+ * aggregated the same way by the app frame that caused them.</p>
+ *
+ * <p>{@link #report()} lists the worst call sites by total stalled time; it is part of
+ * {@link PerfMetrics#dump()}. Each stall is also logged (tag {@value #TAG}) and its
+ * duration recorded as {@link PerfMetrics#MAIN_STALL}.</p>
+ */
+public final class StallWatchdog {
+
+    private static final String TAG = "StallWatchdog";
+    private static final String APP_PACKAGE = "com.example.firebasenavdemo.";
+    private static final long SAMPLE_INTERVAL_MS = 5;
+    // Frames kept per call site, for the report.
+    private static final int STACK_DEPTH = 8;
+    // Call sites listed in the report, and kept at most (the rest are counted as "other").
+    private static final int REPORT_SITES = 10;
+    private static final int MAX_SITES = 500;
+    private static final String OTHER_SITE = "(other)";
+
+    private static final Object lock = new Object();
+    private static final Map<String, Site> stalls = new HashMap<>();
+    private static final Map<String, Site> violations = new HashMap<>();
+
+    private static volatile boolean installed;
+    private static long budgetNanos;
+    private static Thread mainThread;
+    private static Handler sampler;
+
+    // --- State of the message being dispatched (guarded by lock) ---
+    private static long dispatchStart;
+    private static boolean dispatching;
+    private static final List<StackTraceElement[]> samples = new ArrayList<>();
+
+    private StallWatchdog() {}
+
+    /**
+     * Starts watching the main looper and enables StrictMode with its violations routed
+     * here. Call once, from {@code Application.onCreate()}, in debug builds only: the
+     * looper hook formats a log line per message.
+     * @param context Any context; used to read the display's refresh rate.
+     */
+    public static void install(@NonNull Context context) {
+        if (installed) return;
+        DisplayManager dm = context.getSystemService(DisplayManager.class);
+        Display display = (dm != null) ? dm.getDisplay(Display.DEFAULT_DISPLAY) : null;
+        float refreshRate = (display != null && display.getRefreshRate() > 0) ? display.getRefreshRate() : 60f;
+        budgetNanos = (long) (1e9 / refreshRate);
+
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        sampler = new Handler(thread.getLooper());
+        mainThread = Looper.getMainLooper().getThread();
+        Looper.getMainLooper().setMessageLogging(new DispatchPrinter());
+
+        Executor onSampler = sampler::post;
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                .detectAll()
+                .penaltyLog()
+                .penaltyListener(onSampler, StallWatchdog::onViolation)
+                .build());
+        // Not detectAll(): Firestore's gRPC sockets are untagged by design and would
+        // drown out everything else.
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                .detectActivityLeaks()
+                .detectLeakedClosableObjects()
+                .detectLeakedRegistrationObjects()
+                .detectLeakedSqlLiteObjects()
+                .detectFileUriExposure()
+                .penaltyLog()
+                .penaltyListener(onSampler, StallWatchdog::onViolation)
+                .build());
+        installed = true;
+    }
+
+    /**
+     * Returns the stalls and StrictMode violations recorded so far, worst call sites
+     * first, or an empty string if the watchdog is not installed.
+     */
+    @NonNull
+    public static String report() {
+        if (!installed) return "";
+        StringBuilder sb = new StringBuilder();
+        synchronized (lock) {
+            sb.append(String.format(Locale.US, "Main-thread stalls (> %.1f ms): ", budgetNanos / 1e6));
+            appendSites(sb, stalls, true);
+            sb.append("StrictMode violations: ");
+            appendSites(sb, violations, false);
+        }
+        return sb.toString();
+    }
+
+    /** Clears the recorded stalls and violations. */
+    public static void reset() {
+        synchronized (lock) {
+            stalls.clear();
+            violations.clear();
+        }
+    }
+
+    // --- Main looper hook ---
+
+    /**
+     * Receives the looper's ">>>>> Dispatching" and "<<<<< Finished" lines around each
+     * message, on the main thread.
+     */
+    private static final class DispatchPrinter implements Printer {
+        @Override
+        public void println(String line) {
+            if (line.startsWith(">")) {
+                onDispatchStart();
+            } else if (line.startsWith("<")) {
+                onDispatchEnd(line);
+            }
+        }
+    }
+
+    private static void onDispatchStart() {
+        synchronized (lock) {
+            dispatchStart = System.nanoTime();
+            dispatching = true;
+            samples.clear();
+        }
+        sampler.postDelayed(SAMPLE, budgetNanos / 1_000_000);
+    }
+
+    private static void onDispatchEnd(@NonNull String line) {
+        sampler.removeCallbacks(SAMPLE);
+        long nanos;
+        StackTraceElement[][] taken;
+        synchronized (lock) {
+            dispatching = false;
+            nanos = System.nanoTime() - dispatchStart;
+            if (nanos <= budgetNanos) return;
+            taken = samples.toArray(new StackTraceElement[0][]);
+            samples.clear();
+        }
+        recordStall(nanos, taken, line);
+    }
+
+    // Runs on the sampler thread while a message is over budget.
+    private static final Runnable SAMPLE = new Runnable() {
+        @Override
+        public void run() {
+            StackTraceElement[] stack = mainThread.getStackTrace();
+            synchronized (lock) {
+                if (!dispatching) return;
+                samples.add(stack);
+            }
+            sampler.postDelayed(this, SAMPLE_INTERVAL_MS);
+        }
+    };
+
+    // --- Aggregation ---
+
+    private static void recordStall(long nanos, @NonNull StackTraceElement[][] taken, @NonNull String line) {
+        PerfMetrics.record(PerfMetrics.MAIN_STALL, nanos);
+        // The most frequent call site across the samples.
+        Map<String, Integer> votes = new HashMap<>();
+        String site = null;
+        StackTraceElement[] stack = null;
+        int best = 0;
+        for (StackTraceElement[] sample : taken) {
+            int frame = siteFrame(sample);
+            if (frame < 0) continue;
+            String key = sample[frame].toString();
+            Integer n = votes.get(key);
+            int count = (n == null) ? 1 : n + 1;
+            votes.put(key, count);
+            if (count > best) {
+                best = count;
+                site = key;
+                stack = sample;
+            }
+        }
+        if (site == null) {
+            // Over budget by less than one sample interval: name the message instead.
+            site = "unsampled " + messageName(line);
+        }
+        synchronized (lock) {
+            add(stalls, site, nanos, stack);
+        }
+        Log.w(TAG, String.format(Locale.US, "Main thread stalled %.1f ms at %s", nanos / 1e6, site));
+    }
+
+    // Runs on the sampler thread.
+    private static void onViolation(@NonNull Violation v) {
+        StackTraceElement[] stack = v.getStackTrace();
+        int frame = siteFrame(stack);
+        String site = v.getClass().getSimpleName() + (frame >= 0 ? " at " + stack[frame] : "");
+        synchronized (lock) {
+            add(violations, site, 0, stack);
+        }
+    }
+
+    /**
+     * Returns the handler and callback of a looper log line, without the instance hashes
+     * that would make every message its own call site.
+     */
+    @NonNull
+    private static String messageName(@NonNull String line) {
+        int to = line.indexOf(" to ");
+        String target = (to >= 0) ? line.substring(to + 4) : line;
+        return target.replaceAll(" ?\\{[0-9a-f]+\\}|@[0-9a-f]+", "");
+    }
+
+    /**
+     * Returns the index of the first app frame outside this class, or of the top frame
+     * if there is none; -1 for an empty stack.
+     */
+    private static int siteFrame(@NonNull StackTraceElement[] stack) {
+        for (int i = 0; i < stack.length; i++) {
+            String cls = stack[i].getClassName();
+            if (cls.startsWith(APP_PACKAGE) && !cls.startsWith(StallWatchdog.class.getName())) return i;
+        }
+        return stack.length > 0 ? 0 : -1;
+    }
+
+    // Callers hold the lock.
+    private static void add(@NonNull Map<String, Site> sites, @NonNull String key, long nanos,
+                            @Nullable StackTraceElement[] stack) {
+        Site s = sites.get(key);
+        if (s == null) {
+            if (sites.size() >= MAX_SITES) {
+                key = OTHER_SITE;
+                stack = null;
+                s = sites.get(key);
+            }
+            if (s == null) {
+                s = new Site(stack);
+                sites.put(key, s);
+            }
+        }
+        s.count++;
+        s.totalNanos += nanos;
+        s.maxNanos = Math.max(s.maxNanos, nanos);
+    }
+
+    // Callers hold the lock.
+    private static void appendSites(@NonNull StringBuilder sb, @NonNull Map<String, Site> sites, boolean timed) {
+        List<Map.Entry<String, Site>> sorted = new ArrayList<>(sites.entrySet());
+        sorted.sort((a, b) -> timed
+                ? Long.compare(b.getValue().totalNanos, a.getValue().totalNanos)
+                : Long.compare(b.getValue().count, a.getValue().count));
+        long count = 0;
+        long total = 0;
+        for (Site s : sites.values()) {
+            count += s.count;
+            total += s.totalNanos;
+        }
+        sb.append(count);
+        if (timed) sb.append(String.format(Locale.US, ", %.0f ms in total", total / 1e6));
+        sb.append('\n');
+        for (Map.Entry<String, Site> e : sorted.subList(0, Math.min(REPORT_SITES, sorted.size()))) {
+            Site s = e.getValue();
+            sb.append("  ").append(s.count).append("x ");
+            if (timed) {
+                sb.append(String.format(Locale.US, "%.0f ms (max %.0f ms) ", s.totalNanos / 1e6, s.maxNanos / 1e6));
+            }
+            sb.append(e.getKey()).append('\n');
+            if (s.stack != null) {
+                for (int i = 0; i < Math.min(STACK_DEPTH, s.stack.length); i++) {
+                    sb.append("      at ").append(s.stack[i]).append('\n');
+                }
+            }
+        }
+    }
+
+    /** The stalls or violations of one call site. */
+    private static final class Site {
+        // A stack seen at this site, top frame first.
+        @Nullable
+        final StackTraceElement[] stack;
+        long count;
+        long totalNanos;
+        long maxNanos;
+
+        Site(@Nullable StackTraceElement[] stack) {
+            this.stack = stack;
+        }
+    }
+}
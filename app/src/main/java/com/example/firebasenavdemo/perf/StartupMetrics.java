@@ -0,0 +1,71 @@
+package com.example.firebasenavdemo.perf;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Records cold-start milestones relative to process start, so the effect of startup
+ * changes can be read from logcat (tag {@value #TAG}) or from the recorded values.
+ */
+public final class StartupMetrics {
+
+    private static final String TAG = "StartupMetrics";
+
+    // Milliseconds since process start, or -1 if not reached yet in this process.
+    private static volatile long routingDecisionMs = -1;
+    private static volatile long firstFrameMs = -1;
+
+    private StartupMetrics() {}
+
+    /**
+     * Marks the moment the splash screen knows where to route (auth state is known).
+     * Only the first call per process is recorded.
+     */
+    public static void markRoutingDecision() {
+        if (routingDecisionMs >= 0) return;
+        routingDecisionMs = sinceProcessStart();
+        Log.i(TAG, "Time to routing decision: " + routingDecisionMs + " ms");
+    }
+
+    /**
+     * Marks the first frame of the given activity, the first screen after the splash.
+     * Only the first activity per process is recorded.
+     * @param activity The activity whose first frame is awaited.
+     */
+    public static void markFirstFrame(@NonNull Activity activity) {
+        if (firstFrameMs >= 0) return;
+        View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                if (firstFrameMs < 0) {
+                    firstFrameMs = sinceProcessStart();
+                    Log.i(TAG, "Time to first frame (" + activity.getClass().getSimpleName()
+                            + "): " + firstFrameMs + " ms");
+                }
+                return true;
+            }
+        });
+    }
+
+    /** Time to routing decision in ms since process start, or -1. */
+    public static long routingDecisionMs() {
+        return routingDecisionMs;
+    }
+
+    /** Time to first post-splash frame in ms since process start, or -1. */
+    public static long firstFrameMs() {
+        return firstFrameMs;
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+}
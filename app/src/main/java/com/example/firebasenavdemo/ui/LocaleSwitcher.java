@@ -0,0 +1,98 @@
+package com.example.firebasenavdemo.ui;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatDelegate;
+import androidx.core.os.LocaleListCompat;
+
+import com.example.firebasenavdemo.perf.PerfMetrics;
+
+import java.util.Locale;
+
+/**
+ * Switches the app's display language and measures how long the switch takes.
+ *
+ * <p>{@code MainActivity} declares that it handles locale and layout direction changes
+ * itself, so a switch re-binds its text in place instead of recreating the activity with
+ * its drawer, fragments and data. The {@link PerfMetrics#LOCALE_SWITCH} span runs from
+ * {@link #apply(Context, String)} to the first frame drawn in the new language,
+ * whichever way the activity got there. Started with {@link #EXTRA_RECREATE_ON_SWITCH},
+ * the activity recreates itself on a switch as it did before, so both paths can be
+ * compared on the same device.</p>
+ */
+public final class LocaleSwitcher {
+
+    /**
+     * Boolean {@code MainActivity} extra: recreate the activity on a language switch
+     * instead of re-binding it in place. For latency comparisons only.
+     */
+    public static final String EXTRA_RECREATE_ON_SWITCH =
+            "com.example.firebasenavdemo.extra.RECREATE_ON_LOCALE_SWITCH";
+
+    // The switch being measured and the locale it started from; main thread only.
+    @Nullable
+    private static PerfMetrics.AsyncSpan pending;
+    @Nullable
+    private static Locale pendingFrom;
+
+    private LocaleSwitcher() {}
+
+    /**
+     * Makes a language the app's display language. Does nothing if it already is.
+     * @param context The current activity or fragment context.
+     * @param languageTag A BCP 47 language tag, e.g. "es".
+     */
+    @MainThread
+    public static void apply(@NonNull Context context, @NonNull String languageTag) {
+        LocaleListCompat locales = LocaleListCompat.forLanguageTags(languageTag);
+        if (locales.equals(AppCompatDelegate.getApplicationLocales())) return;
+        pending = PerfMetrics.beginAsync(PerfMetrics.LOCALE_SWITCH);
+        pendingFrom = primaryLocale(context);
+        AppCompatDelegate.setApplicationLocales(locales);
+    }
+
+    /**
+     * Ends the pending switch, if any, when the activity draws its next frame. Call once
+     * the activity shows the new language, after re-binding or recreation.
+     * @param activity The activity that applied the new configuration.
+     */
+    @MainThread
+    static void markApplied(@NonNull Activity activity) {
+        PerfMetrics.AsyncSpan span = pending;
+        if (span == null) return;
+        pending = null;
+        // Choosing the language the app already showed changes no configuration; the
+        // span would otherwise end at an unrelated later recreation.
+        if (primaryLocale(activity).equals(pendingFrom)) return;
+        View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                span.end();
+                return true;
+            }
+        });
+        // The view may not need a new frame (e.g. nothing on screen changed).
+        decor.invalidate();
+    }
+
+    /**
+     * Whether an activity was started to recreate itself on a language switch.
+     * @param activity The activity.
+     */
+    static boolean recreatesOnSwitch(@NonNull Activity activity) {
+        return activity.getIntent().getBooleanExtra(EXTRA_RECREATE_ON_SWITCH, false);
+    }
+
+    @NonNull
+    private static Locale primaryLocale(@NonNull Context context) {
+        return context.getResources().getConfiguration().getLocales().get(0);
+    }
+}
@@ -14,6 +14,9 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.perf.PerfMetrics;
+import com.example.firebasenavdemo.perf.StartupMetrics;
+import com.example.firebasenavdemo.ui.fragments.viewmodels.ItemsViewModel;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthResult;
@@ -46,6 +49,8 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         // Set the user interface layout for this activity.
         setContentView(R.layout.activity_login);
+        // Record the first frame after the splash screen for startup measurements.
+        StartupMetrics.markFirstFrame(this);
 
         // --- Firebase Initialization ---
         // Get an instance of the FirebaseAuth service.
@@ -99,7 +104,10 @@ public class LoginActivity extends AppCompatActivity {
         // --- Firebase Sign-In ---
         // Show the progress bar to indicate a network operation is in progress.
         progress.setVisibility(View.VISIBLE);
+        // Time the round trip even if this activity is gone when it completes.
+        PerfMetrics.AsyncSpan signIn = PerfMetrics.beginAsync(PerfMetrics.AUTH_SIGN_IN);
         auth.signInWithEmailAndPassword(email, password)
+                .addOnCompleteListener(task -> signIn.end())
                 .addOnCompleteListener(this, new OnCompleteListener<AuthResult>() {
                     @Override
                     public void onComplete(@NonNull Task<AuthResult> task) {
@@ -108,6 +116,9 @@ public class LoginActivity extends AppCompatActivity {
 
                         // Check if the sign-in task was successful.
                         if (task.isSuccessful()) {
+                            // Start loading the items now, so the items screen opens warm.
+                            FirebaseUser user = task.getResult().getUser();
+                            if (user != null) ItemsViewModel.prefetch(LoginActivity.this, user.getUid());
                             // On success, show a confirmation message.
                             Toast.makeText(LoginActivity.this, "Logged in successfully", Toast.LENGTH_SHORT).show();
                             // Navigate to the main screen of the app.
@@ -1,7 +1,9 @@
 package com.example.firebasenavdemo.ui;
 
 import android.content.Intent;
+import android.content.res.Configuration;
 import android.os.Bundle;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.TextView;
@@ -10,12 +12,22 @@ import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
+import androidx.metrics.performance.JankStats;
 
+import com.example.firebasenavdemo.BuildConfig;
 import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.data.ItemsPrefetcher;
+import com.example.firebasenavdemo.data.ItemsSyncWorker;
+import com.example.firebasenavdemo.perf.PerfMetrics;
+import com.example.firebasenavdemo.perf.StartupMetrics;
 import com.example.firebasenavdemo.ui.fragments.AccountFragment;
 import com.example.firebasenavdemo.ui.fragments.HomeFragment;
 import com.example.firebasenavdemo.ui.fragments.ItemsFragment;
 import com.example.firebasenavdemo.ui.fragments.LanguageFragment;
+import com.example.firebasenavdemo.ui.fragments.PerfFragment;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.navigation.NavigationView;
 import com.google.firebase.auth.FirebaseAuth;
@@ -30,11 +42,23 @@ import javax.annotation.Nonnull;
  */
 public class MainActivity extends AppCompatActivity {
 
+    // --- Destination Tags (fragment tags of the retained top-level screens) ---
+    private static final String TAG_HOME = "home";
+    private static final String TAG_ITEMS = "items";
+    private static final String TAG_ACCOUNT = "account";
+    private static final String TAG_LANGUAGE = "language";
+    private static final String TAG_PERF = "perf";
+    private static final String KEY_CURRENT_TAG = "current_destination";
+
+    // The tag of the destination currently shown.
+    private String currentTag;
+
     // --- UI Components for Navigation ---
     private DrawerLayout drawerLayout;
     private NavigationView navigationView;
     private MaterialToolbar toolbar;
     private ActionBarDrawerToggle toggle; // Manages the hamburger icon for the drawer.
+    private JankStats jankStats; // Reports frame durations while resumed; null if metrics are off.
 
     /**
      * Called when the activity is first created. This is where UI elements are
@@ -46,6 +70,9 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        // Record the first frame after the splash screen for startup measurements.
+        StartupMetrics.markFirstFrame(this);
+        jankStats = PerfMetrics.trackFrames(getWindow());
 
         // --- Toolbar and Drawer Initialization ---
         toolbar = findViewById(R.id.toolbar);
@@ -53,6 +80,8 @@ public class MainActivity extends AppCompatActivity {
 
         drawerLayout = findViewById(R.id.drawerLayout);
         navigationView = findViewById(R.id.navigationView);
+        // The metrics screen is a developer tool.
+        navigationView.getMenu().findItem(R.id.nav_perf).setVisible(BuildConfig.DEBUG);
 
         // Connect the drawer layout with the toolbar using the toggle.
         toggle = new ActionBarDrawerToggle(this, drawerLayout, toolbar,
@@ -62,9 +91,13 @@ public class MainActivity extends AppCompatActivity {
 
         // --- Set Initial Fragment ---
         // If this is the first time the activity is created, show the Home fragment.
+        // Otherwise the FragmentManager has restored the destinations; restore the title.
         if (savedInstanceState == null) {
-            navigateTo(new HomeFragment(), getString(R.string.nav_home));
+            navigateTo(TAG_HOME);
             navigationView.setCheckedItem(R.id.nav_home);
+        } else {
+            currentTag = savedInstanceState.getString(KEY_CURRENT_TAG, TAG_HOME);
+            toolbar.setTitle(titleFor(currentTag));
         }
 
         // --- Populate Navigation Header with User Info ---
@@ -78,6 +111,40 @@ public class MainActivity extends AppCompatActivity {
             handleNavigation(item); // Navigate to the corresponding fragment.
             return true;
         });
+
+        // Ends the language-switch measurement if this activity was recreated for it.
+        LocaleSwitcher.markApplied(this);
+    }
+
+    /**
+     * Called instead of recreation when the display language changes (the manifest
+     * declares that this activity handles locale and layout direction changes). The
+     * fragments re-bind their own text as the change reaches them; this mirrors the view
+     * tree if the direction changed and re-binds the drawer menu and the toolbar title.
+     * The activity, its fragments and their data are kept.
+     * @param newConfig The new configuration.
+     */
+    @Override
+    public void onConfigurationChanged(@Nonnull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        if (LocaleSwitcher.recreatesOnSwitch(this)) {
+            // Measuring the old path for comparison.
+            recreate();
+            return;
+        }
+        // Views inherit their direction from the root, so re-resolving it there re-lays
+        // out the drawer, toolbar and lists mirrored.
+        getWindow().getDecorView().setLayoutDirection(newConfig.getLayoutDirection());
+        // Re-inflate the menu for its titles, then restore its state.
+        Menu menu = navigationView.getMenu();
+        menu.clear();
+        navigationView.inflateMenu(R.menu.menu_nav_main);
+        menu.findItem(R.id.nav_perf).setVisible(BuildConfig.DEBUG);
+        navigationView.setCheckedItem(menuItemFor(currentTag));
+        // The toggle resolves its content descriptions on each state change.
+        toggle.syncState();
+        toolbar.setTitle(titleFor(currentTag));
+        LocaleSwitcher.markApplied(this);
     }
 
     /**
@@ -99,17 +166,106 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Replaces the content of the fragment container with a new fragment.
-     * @param fragment The fragment to display.
-     * @param title The title to set on the toolbar for this fragment.
+     * Frames are only reported while the activity is in the foreground.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (jankStats != null) jankStats.setTrackingEnabled(true);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (jankStats != null) jankStats.setTrackingEnabled(false);
+    }
+
+    /**
+     * Saves which destination is shown so it can be restored after recreation.
      */
-    private void navigateTo(Fragment fragment, String title) {
-        getSupportFragmentManager()
-                .beginTransaction()
-                .replace(R.id.fragmentContainer, fragment)
-                .commit();
+    @Override
+    protected void onSaveInstanceState(@Nonnull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(KEY_CURRENT_TAG, currentTag);
+    }
+
+    /**
+     * Shows a top-level destination. Each destination is created once and then kept:
+     * switching hides the current fragment (capped at STARTED, so it pauses but keeps its
+     * views, data and listeners) and shows the target. Returning to a section is instant
+     * and does not re-read its data.
+     * @param tag The destination's tag.
+     */
+    private void navigateTo(@Nonnull String tag) {
+        FragmentManager fm = getSupportFragmentManager();
+        Fragment target = fm.findFragmentByTag(tag);
+        Fragment current = (currentTag != null) ? fm.findFragmentByTag(currentTag) : null;
+
+        if (target == null || target != current) {
+            FragmentTransaction tx = fm.beginTransaction().setReorderingAllowed(true);
+            if (current != null) {
+                tx.hide(current);
+                tx.setMaxLifecycle(current, Lifecycle.State.STARTED);
+            }
+            if (target == null) {
+                // First visit: create the destination.
+                target = createDestination(tag);
+                tx.add(R.id.fragmentContainer, target, tag);
+            } else {
+                tx.show(target);
+            }
+            tx.setMaxLifecycle(target, Lifecycle.State.RESUMED);
+            tx.commit();
+        }
+        currentTag = tag;
+        // Attribute subsequent frames (and any jank) to this screen.
+        PerfMetrics.setScreen(drawerLayout, tag);
         // Update the toolbar's title to reflect the current screen.
-        toolbar.setTitle(title);
+        toolbar.setTitle(titleFor(tag));
+    }
+
+    /**
+     * Creates the fragment for a destination on its first visit.
+     * @param tag The destination's tag.
+     */
+    @Nonnull
+    private Fragment createDestination(@Nonnull String tag) {
+        switch (tag) {
+            case TAG_ITEMS: return new ItemsFragment();
+            case TAG_ACCOUNT: return new AccountFragment();
+            case TAG_LANGUAGE: return new LanguageFragment();
+            case TAG_PERF: return new PerfFragment();
+            default: return new HomeFragment();
+        }
+    }
+
+    /**
+     * Returns the toolbar title for a destination.
+     * @param tag The destination's tag.
+     */
+    @Nonnull
+    private String titleFor(@Nonnull String tag) {
+        switch (tag) {
+            case TAG_ITEMS: return getString(R.string.nav_items);
+            case TAG_ACCOUNT: return getString(R.string.nav_account);
+            case TAG_LANGUAGE: return getString(R.string.nav_language);
+            case TAG_PERF: return getString(R.string.nav_perf);
+            default: return getString(R.string.nav_home);
+        }
+    }
+
+    /**
+     * Returns the drawer menu item of a destination.
+     * @param tag The destination's tag.
+     */
+    private int menuItemFor(@Nonnull String tag) {
+        switch (tag) {
+            case TAG_ITEMS: return R.id.nav_items;
+            case TAG_ACCOUNT: return R.id.nav_account;
+            case TAG_LANGUAGE: return R.id.nav_language;
+            case TAG_PERF: return R.id.nav_perf;
+            default: return R.id.nav_home;
+        }
     }
 
     /**
@@ -120,13 +276,15 @@ public class MainActivity extends AppCompatActivity {
         int id = item.getItemId();
         // Navigate to the appropriate fragment based on the selected item's ID.
         if (id == R.id.nav_home) {
-            navigateTo(new HomeFragment(), getString(R.string.nav_home));
+            navigateTo(TAG_HOME);
         } else if (id == R.id.nav_items) {
-            navigateTo(new ItemsFragment(), getString(R.string.nav_items));
+            navigateTo(TAG_ITEMS);
         } else if (id == R.id.nav_account) {
-            navigateTo(new AccountFragment(), getString(R.string.nav_account));
+            navigateTo(TAG_ACCOUNT);
         } else if (id == R.id.nav_language) {
-            navigateTo(new LanguageFragment(), getString(R.string.nav_language));
+            navigateTo(TAG_LANGUAGE);
+        } else if (id == R.id.nav_perf) {
+            navigateTo(TAG_PERF);
         } else if (id == R.id.nav_logout) {
             // Handle user logout.
             logout();
@@ -138,6 +296,10 @@ public class MainActivity extends AppCompatActivity {
      * back to the LoginActivity.
      */
     private void logout() {
+        // Drop the signed-out user's prefetched items, if the items screen never took them,
+        // and stop syncing them in the background.
+        ItemsPrefetcher.cancel();
+        ItemsSyncWorker.cancel(this);
         FirebaseAuth.getInstance().signOut();
         // Create an intent to go back to the LoginActivity.
         Intent i = new Intent(this, LoginActivity.class);
@@ -12,6 +12,7 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.perf.PerfMetrics;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
@@ -83,7 +84,9 @@ public class SignUpActivity extends AppCompatActivity {
 
         // --- Firebase Account Creation ---
         // Use Firebase to create a new user with the given email and password.
+        PerfMetrics.AsyncSpan signUp = PerfMetrics.beginAsync(PerfMetrics.AUTH_SIGN_UP);
         auth.createUserWithEmailAndPassword(email, password)
+                .addOnCompleteListener(task -> signUp.end())
                 .addOnCompleteListener(this, task -> {
                     // This block runs when the user creation task is complete.
                     if (task.isSuccessful()) {
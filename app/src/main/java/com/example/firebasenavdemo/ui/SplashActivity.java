@@ -2,32 +2,38 @@ package com.example.firebasenavdemo.ui;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.splashscreen.SplashScreen;
 
-import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.BuildConfig;
+import com.example.firebasenavdemo.perf.StartupMetrics;
+import com.example.firebasenavdemo.ui.fragments.viewmodels.ItemsViewModel;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
 /**
  * The initial screen displayed when the application is launched.
- * It shows a splash screen for a brief period and then navigates
- * either to the LoginActivity or the MainActivity based on the user's
- * authentication state.
+ * It keeps the system splash screen on screen only until Firebase Auth has restored
+ * its session, then navigates either to the LoginActivity or the MainActivity based
+ * on the user's authentication state. There is no artificial delay.
  */
 public class SplashActivity extends AppCompatActivity {
 
     /**
      * A developer flag. If set to true, the app will always show the login screen,
      * ignoring any existing signed-in user. This is useful for testing the login flow.
+     * It is off in emulator builds so benchmarks can start straight into MainActivity.
      */
-    private static final boolean FORCE_LOGIN_EVERY_TIME = true;
+    private static final boolean FORCE_LOGIN_EVERY_TIME = BuildConfig.FORCE_LOGIN_EVERY_TIME;
+
+    // Set once the destination is known; releases the splash screen.
+    private boolean routed;
 
     /**
-     * Called when the activity is first created. This method sets up the splash screen
-     * and a delayed handler to navigate to the next appropriate activity.
+     * Called when the activity is first created. This method installs the splash screen,
+     * which stays visible until the routing decision has been made.
      *
      * @param savedInstanceState If the activity is being re-initialized after
      *                           previously being shut down then this Bundle contains the data it most
@@ -35,34 +41,50 @@ public class SplashActivity extends AppCompatActivity {
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Must be called before super.onCreate() so the splash theme is swapped correctly.
+        SplashScreen splash = SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
 
-        // Set the user interface layout for this activity from activity_splash.xml.
-        setContentView(R.layout.activity_splash);
-
-        // Use a Handler to delay the execution of the navigation logic.
-        // This creates the "splash screen" effect by showing the layout for a short duration.
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            Intent i; // The intent to be launched after the delay.
+        // Keep the splash screen up only while the destination is still unknown.
+        splash.setKeepOnScreenCondition(() -> !routed);
 
-            // Check the developer flag to decide the navigation path.
-            if (FORCE_LOGIN_EVERY_TIME) {
-                // If forcing login, always navigate to LoginActivity.
-                i = new Intent(this, LoginActivity.class);
-            } else {
-                // --- Normal Behavior ---
-                // Check if a user is already signed in with Firebase.
-                FirebaseUser u = FirebaseAuth.getInstance().getCurrentUser();
+        // Check the developer flag to decide the navigation path.
+        if (FORCE_LOGIN_EVERY_TIME) {
+            // If forcing login, there is nothing to wait for.
+            route(null);
+            return;
+        }
 
-                // If a user exists (is not null), navigate to the MainActivity.
-                // Otherwise, navigate to the LoginActivity.
-                i = (u != null) ? new Intent(this, MainActivity.class)
-                        : new Intent(this, LoginActivity.class);
+        // --- Normal Behavior ---
+        // The first auth state callback arrives once the persisted session has been restored.
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        auth.addAuthStateListener(new FirebaseAuth.AuthStateListener() {
+            @Override
+            public void onAuthStateChanged(FirebaseAuth a) {
+                a.removeAuthStateListener(this);
+                route(a.getCurrentUser());
             }
-            // Launch the determined activity.
-            startActivity(i);
-            // Finish the SplashActivity so the user cannot navigate back to it.
-            finish();
-        }, 900); // The delay in milliseconds (approx. 0.9 seconds).
+        });
+    }
+
+    /**
+     * Launches the next screen and finishes the splash.
+     * @param user The restored user, or null to go to the login screen.
+     */
+    private void route(@Nullable FirebaseUser user) {
+        if (routed) return;
+        routed = true;
+        StartupMetrics.markRoutingDecision();
+        // A restored session: start loading the items while the main screen comes up.
+        if (user != null) ItemsViewModel.prefetch(this, user.getUid());
+
+        // If a user exists (is not null), navigate to the MainActivity.
+        // Otherwise, navigate to the LoginActivity.
+        Intent i = (user != null) ? new Intent(this, MainActivity.class)
+                : new Intent(this, LoginActivity.class);
+        // Launch the determined activity.
+        startActivity(i);
+        // Finish the SplashActivity so the user cannot navigate back to it.
+        finish();
     }
 }
@@ -1,30 +1,52 @@
 package com.example.firebasenavdemo.ui.fragments;
 
+import android.content.res.Configuration;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 
 import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.data.BulkDeleter;
+import com.example.firebasenavdemo.data.BulkImporter;
+import com.example.firebasenavdemo.data.FirestoreConfig;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QuerySnapshot;
-import com.google.firebase.firestore.WriteBatch;
 
 /**
  * A fragment that displays the current user's account information and provides
- * an option to delete all their associated items from Firestore.
+ * an option to delete all their associated items from Firestore. Deletion runs in
+ * bounded batches with progress, and can be stopped and resumed. Items can also be
+ * imported in bulk from a JSON or CSV file.
  */
 public class AccountFragment extends Fragment {
 
+    // --- UI Components ---
+    private Button btnDeleteAll;
+    private ProgressBar progressDelete;
+    private TextView tvDeleteProgress;
+    private Button btnImport;
+    private ProgressBar progressImport;
+    private TextView tvImportProgress;
+
+    // --- Bulk Delete ---
+    private BulkDeleter deleter; // Non-null while a run is in progress.
+
+    // --- Bulk Import ---
+    private BulkImporter importer; // Non-null while a run is in progress.
+    private final ActivityResultLauncher<String[]> pickImportFile =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::onImportFilePicked);
+
     /**
      * Called to have the fragment instantiate its user interface view.
      *
@@ -39,7 +61,12 @@ public class AccountFragment extends Fragment {
 
         // --- View Initialization ---
         TextView tv = v.findViewById(R.id.tvAccountInfo);
-        Button btn = v.findViewById(R.id.btnDeleteAllItems);
+        btnDeleteAll = v.findViewById(R.id.btnDeleteAllItems);
+        progressDelete = v.findViewById(R.id.progressDelete);
+        tvDeleteProgress = v.findViewById(R.id.tvDeleteProgress);
+        btnImport = v.findViewById(R.id.btnImportItems);
+        progressImport = v.findViewById(R.id.progressImport);
+        tvImportProgress = v.findViewById(R.id.tvImportProgress);
 
         // --- Display User Info ---
         // Get the current signed-in user from Firebase Auth.
@@ -54,62 +81,191 @@ public class AccountFragment extends Fragment {
         }
 
         // --- Button Click Listener for Deleting All Items ---
-        btn.setOnClickListener(click -> {
+        // Offer to resume if an earlier run was interrupted (e.g. the fragment was closed mid-run).
+        if (u != null && BulkDeleter.hasUnfinishedRun(requireContext(), u.getUid())) {
+            btnDeleteAll.setText(R.string.resume_delete_all);
+        }
+        btnDeleteAll.setOnClickListener(click -> {
+            // A second click while running cancels the run; it can be resumed later.
+            if (deleter != null) {
+                stopDeleting();
+                Toast.makeText(requireContext(), R.string.delete_paused, Toast.LENGTH_SHORT).show();
+                return;
+            }
+
             // Get the current user again to ensure they haven't signed out.
             FirebaseUser u2 = FirebaseAuth.getInstance().getCurrentUser();
             if (u2 == null) {
                 Toast.makeText(requireContext(), "No user", Toast.LENGTH_SHORT).show();
                 return;
             }
+            startDeleting(u2.getUid());
+        });
 
-            // Disable the button to prevent multiple clicks during the operation.
-            btn.setEnabled(false);
-
-            // Get a Firestore instance and reference the user's "items" collection.
-            FirebaseFirestore db = FirebaseFirestore.getInstance();
-            db.collection("users").document(u2.getUid()).collection("items")
-                    .get() // Fetch all documents in the collection.
-                    .addOnCompleteListener(task -> {
-                        // Check if the fetch operation was unsuccessful.
-                        if (!task.isSuccessful()) {
-                            btn.setEnabled(true); // Re-enable the button.
-                            // Show an error message.
-                            Toast.makeText(requireContext(),
-                                    task.getException() != null ? task.getException().getMessage() : "Query failed",
-                                    Toast.LENGTH_LONG).show();
-                            return;
-                        }
-
-                        // Get the result of the query.
-                        QuerySnapshot q = task.getResult();
-                        if (q == null || q.isEmpty()) {
-                            btn.setEnabled(true); // Re-enable the button.
-                            Toast.makeText(requireContext(), "No items to delete", Toast.LENGTH_SHORT).show();
-                            return;
-                        }
-
-                        // --- Batch Deletion ---
-                        // Create a WriteBatch to delete all documents in a single atomic operation.
-                        WriteBatch batch = db.batch();
-                        for (DocumentSnapshot d : q.getDocuments()) {
-                            // Add each document's deletion to the batch.
-                            batch.delete(d.getReference());
-                        }
-
-                        // Commit the batch operation.
-                        batch.commit()
-                                .addOnSuccessListener(unused -> {
-                                    // On success, re-enable the button and show a confirmation toast.
-                                    btn.setEnabled(true);
-                                    Toast.makeText(requireContext(), "All items deleted", Toast.LENGTH_SHORT).show();
-                                })
-                                .addOnFailureListener(e -> {
-                                    // On failure, re-enable the button and show an error message.
-                                    btn.setEnabled(true);
-                                    Toast.makeText(requireContext(), e.getMessage(), Toast.LENGTH_LONG).show();
-                                });
-                    });
+        // --- Button Click Listener for Importing Items ---
+        btnImport.setOnClickListener(click -> {
+            // A second click while running stops the import; items already committed stay.
+            if (importer != null) {
+                stopImporting();
+                Toast.makeText(requireContext(), R.string.import_stopped, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            pickImportFile.launch(new String[] {
+                    "application/json", "text/csv", "text/comma-separated-values", "text/plain" });
         });
         return v; // Return the configured view.
     }
+
+    /**
+     * Re-binds the button labels after a language switch, which keeps this view and any
+     * running delete or import. Progress text follows with the next progress report.
+     */
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        if (btnDeleteAll == null) return;
+        FirebaseUser u = FirebaseAuth.getInstance().getCurrentUser();
+        if (deleter != null) {
+            btnDeleteAll.setText(R.string.cancel_delete_all);
+        } else if (u != null && BulkDeleter.hasUnfinishedRun(requireContext(), u.getUid())) {
+            btnDeleteAll.setText(R.string.resume_delete_all);
+        } else {
+            btnDeleteAll.setText(R.string.delete_all);
+        }
+        btnImport.setText(importer != null ? R.string.cancel_import : R.string.import_items);
+    }
+
+    /**
+     * Starts (or resumes) deleting all of the user's items in bounded batches,
+     * showing progress below the button.
+     * @param uid The signed-in user's id.
+     */
+    private void startDeleting(@NonNull String uid) {
+        btnDeleteAll.setText(R.string.cancel_delete_all);
+        progressDelete.setVisibility(View.VISIBLE);
+        progressDelete.setIndeterminate(true);
+        tvDeleteProgress.setVisibility(View.VISIBLE);
+
+        deleter = new BulkDeleter(requireContext(), FirestoreConfig.db(), uid);
+        deleter.start(new BulkDeleter.Listener() {
+            @Override public void onProgress(long deleted, long total) {
+                if (total > 0) {
+                    progressDelete.setIndeterminate(false);
+                    progressDelete.setMax((int) Math.min(total, Integer.MAX_VALUE));
+                    progressDelete.setProgress((int) Math.min(deleted, Integer.MAX_VALUE));
+                    tvDeleteProgress.setText(getString(R.string.delete_progress, deleted, total));
+                } else {
+                    tvDeleteProgress.setText(getString(R.string.delete_progress_counting, deleted));
+                }
+            }
+
+            @Override public void onFinished(long deleted) {
+                deleter = null;
+                resetDeleteUi(R.string.delete_all);
+                Toast.makeText(requireContext(), deleted > 0 ? R.string.all_deleted : R.string.no_items,
+                        Toast.LENGTH_SHORT).show();
+            }
+
+            @Override public void onFailed(@NonNull Exception e) {
+                deleter = null;
+                // Progress is kept, so the next click resumes.
+                resetDeleteUi(R.string.resume_delete_all);
+                Toast.makeText(requireContext(), e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    /**
+     * Cancels the running delete. Commits already sent still complete.
+     */
+    private void stopDeleting() {
+        if (deleter != null) {
+            deleter.cancel();
+            deleter = null;
+        }
+        if (btnDeleteAll != null) {
+            resetDeleteUi(R.string.resume_delete_all);
+        }
+    }
+
+    /**
+     * Called with the document chosen in the system file picker, or null if cancelled.
+     */
+    private void onImportFilePicked(Uri file) {
+        FirebaseUser u = FirebaseAuth.getInstance().getCurrentUser();
+        if (file == null || u == null || btnImport == null) return;
+
+        btnImport.setText(R.string.cancel_import);
+        progressImport.setVisibility(View.VISIBLE);
+        tvImportProgress.setVisibility(View.VISIBLE);
+        tvImportProgress.setText(getString(R.string.import_progress, 0L, 0.0));
+
+        importer = new BulkImporter(requireContext(), FirestoreConfig.db(), u.getUid(), file);
+        importer.start(new BulkImporter.Listener() {
+            @Override public void onProgress(long imported, double itemsPerSecond) {
+                tvImportProgress.setText(getString(R.string.import_progress, imported, itemsPerSecond));
+            }
+
+            @Override public void onFinished(long imported) {
+                importer = null;
+                resetImportUi();
+                Toast.makeText(requireContext(), getString(R.string.import_finished, imported),
+                        Toast.LENGTH_SHORT).show();
+            }
+
+            @Override public void onFailed(@NonNull Exception e) {
+                importer = null;
+                resetImportUi();
+                Toast.makeText(requireContext(), e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    /**
+     * Stops the running import. Batches already sent still complete.
+     */
+    private void stopImporting() {
+        if (importer != null) {
+            importer.cancel();
+            importer = null;
+        }
+        if (btnImport != null) {
+            resetImportUi();
+        }
+    }
+
+    private void resetImportUi() {
+        btnImport.setText(R.string.import_items);
+        progressImport.setVisibility(View.GONE);
+        tvImportProgress.setVisibility(View.GONE);
+    }
+
+    private void resetDeleteUi(int buttonText) {
+        btnDeleteAll.setText(buttonText);
+        progressDelete.setVisibility(View.GONE);
+        tvDeleteProgress.setVisibility(View.GONE);
+    }
+
+    /**
+     * Called when the fragment's view is being torn down. A running delete is cancelled
+     * here; its saved progress lets the next visit resume it. A running import is stopped.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (deleter != null) {
+            deleter.cancel();
+            deleter = null;
+        }
+        if (importer != null) {
+            importer.cancel();
+            importer = null;
+        }
+        btnDeleteAll = null;
+        progressDelete = null;
+        tvDeleteProgress = null;
+        btnImport = null;
+        progressImport = null;
+        tvImportProgress = null;
+    }
 }
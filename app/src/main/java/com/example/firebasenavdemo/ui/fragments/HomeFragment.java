@@ -1,9 +1,13 @@
 package com.example.firebasenavdemo.ui.fragments;
 
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
-import android.view.ViewGroup;import androidx.annotation.NonNull;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import com.example.firebasenavdemo.R;
@@ -31,4 +35,17 @@ public class HomeFragment extends Fragment {
         // Inflate the layout defined in 'fragment_home.xml' for this fragment.
         return inflater.inflate(R.layout.fragment_home, container, false);
     }
+
+    /**
+     * Re-binds the text after a language switch, which keeps this view.
+     */
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        View v = getView();
+        if (v == null) return;
+        v.findViewById(R.id.homeImage).setContentDescription(getString(R.string.app_name));
+        ((TextView) v.findViewById(R.id.homeTitle)).setText(R.string.home_title);
+        ((TextView) v.findViewById(R.id.homeBody)).setText(R.string.home_body);
+    }
 }
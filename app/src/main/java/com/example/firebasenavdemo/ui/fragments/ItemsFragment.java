@@ -1,7 +1,10 @@
 package com.example.firebasenavdemo.ui.fragments;
 
+import android.content.res.Configuration;
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -12,26 +15,24 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.example.firebasenavdemo.data.ItemDeleteQueue;
 import com.example.firebasenavdemo.ui.fragments.adapters.SimpleItemAdapter;
-import com.example.firebasenavdemo.ui.fragments.model.SimpleItem;
+import com.example.firebasenavdemo.ui.fragments.viewmodels.ItemsViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.google.android.material.snackbar.Snackbar;
+import com.google.android.material.textfield.TextInputLayout;
 
 /**
  * A fragment that displays a list of items for the currently logged-in user.
- * It allows adding new items and deleting existing ones via a swipe gesture.
+ * It allows adding new items, deleting existing ones via a swipe gesture (batched,
+ * with undo) and searching titles and subtitles as the user types.
  * The data is synchronized in real-time with a Firestore database.
  */
 public class ItemsFragment extends Fragment {
@@ -39,13 +40,13 @@ public class ItemsFragment extends Fragment {
     // --- UI Components ---
     private RecyclerView recyclerView;
     private FloatingActionButton fabAdd;
+    private EditText etSearch;
+    private Snackbar undoBar; // Shown while swiped items can still be restored.
 
     // --- Firebase & Data ---
-    private FirebaseFirestore db;
-    private CollectionReference itemsRef;
-    private ListenerRegistration registration; // Listens for real-time database changes.
-    private final List<SimpleItem> data = new ArrayList<>();
+    private ItemsViewModel viewModel; // Owns the listener and the list; survives recreation.
     private SimpleItemAdapter adapter;
+    private LinearLayoutManager layoutManager;
 
     /**
      * Called to have the fragment instantiate its user interface view.
@@ -60,41 +61,39 @@ public class ItemsFragment extends Fragment {
         // --- View Initialization ---
         recyclerView = v.findViewById(R.id.recycler);
         fabAdd = v.findViewById(R.id.fabAdd);
+        etSearch = v.findViewById(R.id.etSearch);
 
         // --- RecyclerView Setup ---
-        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
-        adapter = new SimpleItemAdapter(data);
+        layoutManager = new LinearLayoutManager(requireContext());
+        recyclerView.setLayoutManager(layoutManager);
+        // The list's size never depends on its contents, so adapter changes skip a relayout.
+        recyclerView.setHasFixedSize(true);
+        adapter = new SimpleItemAdapter(requireContext());
         recyclerView.setAdapter(adapter);
+        // Create the rows in idle moments while the data is still on its way.
+        adapter.prewarm(recyclerView);
 
-        // --- Firestore Setup ---
-        // Get a Firestore instance and the UID of the current user.
-        db = FirebaseFirestore.getInstance();
-        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        // Create a reference to the user-specific 'items' sub-collection.
-        itemsRef = db.collection("users").document(uid).collection("items");
-
-        // --- Live Query (Real-time Data Synchronization) ---
-        // Attach a listener that fires whenever data in the 'items' collection changes.
-        registration = itemsRef.orderBy("title")
-                .addSnapshotListener((snap, e) -> {
-                    // Handle any errors during the snapshot.
-                    if (e != null) {
-                        Toast.makeText(requireContext(), e.getMessage(), Toast.LENGTH_LONG).show();
-                        return;
-                    }
-                    // Clear the local data list before repopulating it.
-                    data.clear();
-                    // If the snapshot is not null, process the documents.
-                    if (snap != null) {
-                        for (DocumentSnapshot doc : snap.getDocuments()) {
-                            // Convert each Firestore document into a SimpleItem object.
-                            SimpleItem item = doc.toObject(SimpleItem.class);
-                            data.add(item);
-                        }
-                    }
-                    // Notify the adapter that the data set has changed to refresh the UI.
-                    adapter.notifyDataSetChanged();
-                });
+        // --- Data Setup ---
+        // The ViewModel outlives this view; on recreation it already holds the decoded list.
+        viewModel = new ViewModelProvider(this).get(ItemsViewModel.class);
+        // Measure upcoming rows in the background and, when paging, load, prefetch and
+        // evict pages as the user scrolls.
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                reportScrollPosition();
+            }
+        });
+
+        // --- Search Functionality ---
+        // Each keystroke re-filters the list in the background pipeline. The restored text
+        // after a recreation yields the same query, which the pipeline ignores.
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+            @Override public void onTextChanged(CharSequence s, int start, int before, int count) { }
+            @Override public void afterTextChanged(Editable s) {
+                viewModel.setQuery(s.toString());
+            }
+        });
 
         // --- Add Item Functionality ---
         // Set a click listener for the Floating Action Button to show the add dialog.
@@ -112,10 +111,10 @@ public class ItemsFragment extends Fragment {
                 // Get the position of the swiped item.
                 int pos = vh.getBindingAdapterPosition();
                 // Safety check to ensure the position is valid.
-                if (pos < 0 || pos >= data.size()) return;
+                if (pos < 0 || pos >= adapter.getItemCount()) return;
 
                 // Get the item object that was swiped.
-                SimpleItem item = data.get(pos);
+                SimpleItem item = adapter.getItem(pos);
 
                 // Firestore requires the document ID to delete it. Check if it's present.
                 if (item.id == null) {
@@ -123,9 +122,9 @@ public class ItemsFragment extends Fragment {
                     adapter.notifyItemChanged(pos); // Refresh the item to prevent it from disappearing visually.
                     return;
                 }
-                // Issue a delete command to Firestore for the specific document.
-                itemsRef.document(item.id).delete()
-                        .addOnFailureListener(ex -> Toast.makeText(requireContext(), ex.getMessage(), Toast.LENGTH_LONG).show());
+                // The row disappears at once; the deletion is sent in one batch with the
+                // other swipes of the next few seconds, unless it is undone.
+                showUndo(viewModel.deleteLater(item.id));
             }
         });
         // Attach the helper to the RecyclerView.
@@ -134,6 +133,87 @@ public class ItemsFragment extends Fragment {
         return v;
     }
 
+    /**
+     * Called once the view exists. Binds the ViewModel's list and errors to this view;
+     * the observers are removed automatically when the view is destroyed.
+     */
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        // Sort for the current language; a switch re-sorts in onConfigurationChanged.
+        viewModel.setSortLocale(getResources().getConfiguration().getLocales().get(0));
+        // Changed items are measured on the pipeline's thread before they are published.
+        viewModel.setItemPreparer(adapter.getLayouts()::prepare);
+        viewModel.getItems().observe(getViewLifecycleOwner(), update -> {
+            adapter.submit(update);
+            // Once laid out, measure the rows around the new list's viewport; a short page
+            // may also not fill the screen, so let the pager decide whether to load more.
+            recyclerView.post(this::reportScrollPosition);
+        });
+        viewModel.getErrors().observe(getViewLifecycleOwner(), e -> {
+            if (e == null) return;
+            Toast.makeText(requireContext(), e.getMessage(), Toast.LENGTH_LONG).show();
+            viewModel.errorShown();
+        });
+    }
+
+    /**
+     * Called on a language switch, which keeps this view, its list and its listener:
+     * re-binds the search hint and the add button's description and re-sorts the list
+     * for the new language in the background.
+     */
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        View v = getView();
+        if (v == null) return;
+        ((TextInputLayout) v.findViewById(R.id.tilSearch)).setHint(R.string.search_items);
+        fabAdd.setContentDescription(getString(R.string.add_item));
+        viewModel.setSortLocale(newConfig.getLocales().get(0));
+    }
+
+    /**
+     * Forwards the visible row range to the row prefetcher and the pager.
+     */
+    private void reportScrollPosition() {
+        if (layoutManager == null) return;
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        adapter.prefetchAround(first, last);
+        viewModel.onScrolled(first, last);
+    }
+
+    /**
+     * Shows (or updates) the snackbar offering to restore the swiped items. It stays up
+     * for as long as the deletions wait to be sent.
+     * @param count The number of deletions that can be undone.
+     */
+    private void showUndo(int count) {
+        String text = getResources().getQuantityString(R.plurals.items_deleted, count, count);
+        if (undoBar != null && undoBar.isShownOrQueued()) {
+            undoBar.setText(text);
+            // Restart the timeout along with the queue's window.
+            undoBar.show();
+            return;
+        }
+        undoBar = Snackbar.make(recyclerView, text, (int) ItemDeleteQueue.WINDOW_MS)
+                .setAction(R.string.undo, click -> viewModel.undoDeletes());
+        undoBar.show();
+    }
+
+    /**
+     * Called when the fragment is no longer visible. Swiped items are sent now rather than
+     * waiting for the window, unless the view is only being recreated.
+     */
+    @Override
+    public void onStop() {
+        super.onStop();
+        if (!requireActivity().isChangingConfigurations()) {
+            viewModel.flushDeletes();
+            if (undoBar != null) undoBar.dismiss();
+        }
+    }
+
     /**
      * Displays an AlertDialog to allow the user to input details for a new item.
      * On save, the new item is added to the Firestore database.
@@ -157,7 +237,7 @@ public class ItemsFragment extends Fragment {
                     }
                     // Create a new SimpleItem and add it to Firestore.
                     SimpleItem item = new SimpleItem(t, s);
-                    itemsRef.add(item)
+                    viewModel.addItem(item)
                             .addOnFailureListener(ex -> Toast.makeText(requireContext(), ex.getMessage(), Toast.LENGTH_LONG).show());
                 })
                 .setNegativeButton("Cancel", (d, which) -> d.dismiss())
@@ -166,15 +246,17 @@ public class ItemsFragment extends Fragment {
 
     /**
      * Called when the view previously created by onCreateView() has been detached from the fragment.
-     * This is a good place to clean up resources associated with the view.
+     * The Firestore listener is not touched here: it belongs to the ViewModel and keeps the
+     * list current for the next view.
      */
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        // Detach the Firestore listener to prevent memory leaks and unnecessary background processing.
-        if (registration != null) {
-            registration.remove();
-            registration = null;
-        }
+        viewModel.setItemPreparer(null);
+        adapter.release();
+        recyclerView = null;
+        layoutManager = null;
+        etSearch = null;
+        undoBar = null;
     }
 }
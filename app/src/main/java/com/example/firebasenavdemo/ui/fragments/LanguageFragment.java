@@ -1,5 +1,6 @@
 package com.example.firebasenavdemo.ui.fragments;
 
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -7,7 +8,7 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
-import android.widget.Toast;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -16,6 +17,7 @@ import androidx.core.os.LocaleListCompat;
 import androidx.fragment.app.Fragment;
 
 import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.ui.LocaleSwitcher;
 
 /**
  * A fragment that allows the user to change the application's display language.
@@ -25,6 +27,7 @@ import com.example.firebasenavdemo.R;
 public class LanguageFragment extends Fragment {
 
     // --- UI Components ---
+    private TextView tvSelectLanguage;
     private RadioGroup rgLanguages;
     private RadioButton rbEnglish, rbSpanish;
     private Button btnApply;
@@ -45,6 +48,7 @@ public class LanguageFragment extends Fragment {
         View v = inflater.inflate(R.layout.fragment_language, container, false);
 
         // --- View Initialization ---
+        tvSelectLanguage = v.findViewById(R.id.tvSelectLanguage);
         rgLanguages = v.findViewById(R.id.rgLanguages);
         rbEnglish   = v.findViewById(R.id.rbEnglish);
         rbSpanish   = v.findViewById(R.id.rbSpanish);
@@ -67,15 +71,33 @@ public class LanguageFragment extends Fragment {
         btnApply.setOnClickListener(vw -> {
             // Determine which language was chosen based on the selected RadioButton.
             String chosenLanguageTag = rbSpanish.isChecked() ? "es" : "en";
-            // Create a new LocaleList for the chosen language.
-            LocaleListCompat locales = LocaleListCompat.forLanguageTags(chosenLanguageTag);
-            // Apply the new locale to the entire application. The system will handle recreating the UI.
-            AppCompatDelegate.setApplicationLocales(locales);
-            // Show a confirmation toast. Note: This will display in the old language until the UI is recreated.
-            Toast.makeText(requireContext(), getString(R.string.apply), Toast.LENGTH_SHORT).show();
+            // Apply it to the entire application. The activity re-binds its text in place.
+            LocaleSwitcher.apply(requireContext(), chosenLanguageTag);
         });
 
         // Return the configured view.
         return v;
     }
+
+    /**
+     * Re-binds the text after a language switch, which keeps this view. The language
+     * names are always shown in their own language.
+     */
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        if (tvSelectLanguage == null) return;
+        tvSelectLanguage.setText(R.string.select_language);
+        btnApply.setText(R.string.apply);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        tvSelectLanguage = null;
+        rgLanguages = null;
+        rbEnglish = null;
+        rbSpanish = null;
+        btnApply = null;
+    }
 }
@@ -0,0 +1,97 @@
+package com.example.firebasenavdemo.ui.fragments;
+
+import android.content.Intent;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import com.example.firebasenavdemo.R;
+import com.example.firebasenavdemo.perf.PerfMetrics;
+
+/**
+ * A debug-only screen showing the recorded performance metrics: per-stage latency
+ * histograms of the items pipeline, row binding and auth calls, frame statistics,
+ * startup times, and the worst main-thread stalls and StrictMode violations by call
+ * site. The report can be shared as plain text.
+ */
+public class PerfFragment extends Fragment {
+
+    // --- UI Components ---
+    private TextView tvReport;
+
+    /**
+     * Called to have the fragment instantiate its user interface view.
+     *
+     * @param inflater The LayoutInflater object to inflate views in the fragment.
+     * @param container The parent view that the fragment's UI should be attached to.
+     * @param savedInstanceState If non-null, this fragment is being re-constructed from a previous saved state.
+     * @return The View for the fragment's UI.
+     */
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View v = inflater.inflate(R.layout.fragment_perf, container, false);
+
+        // --- View Initialization ---
+        tvReport = v.findViewById(R.id.tvPerfReport);
+        Button btnRefresh = v.findViewById(R.id.btnPerfRefresh);
+        Button btnReset = v.findViewById(R.id.btnPerfReset);
+        Button btnExport = v.findViewById(R.id.btnPerfExport);
+
+        // --- Button Click Listeners ---
+        btnRefresh.setOnClickListener(click -> refresh());
+        btnReset.setOnClickListener(click -> {
+            PerfMetrics.reset();
+            refresh();
+        });
+        // Export: hand the text dump to any app that accepts plain text (mail, Drive, ...).
+        btnExport.setOnClickListener(click -> {
+            Intent send = new Intent(Intent.ACTION_SEND)
+                    .setType("text/plain")
+                    .putExtra(Intent.EXTRA_SUBJECT, getString(R.string.perf_report_subject))
+                    .putExtra(Intent.EXTRA_TEXT, PerfMetrics.dump());
+            startActivity(Intent.createChooser(send, getString(R.string.perf_export)));
+        });
+        return v;
+    }
+
+    /**
+     * Refreshes the report whenever the screen is shown again.
+     */
+    @Override
+    public void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    /**
+     * Re-binds the button labels after a language switch, which keeps this view.
+     */
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        View v = getView();
+        if (v == null) return;
+        ((Button) v.findViewById(R.id.btnPerfRefresh)).setText(R.string.perf_refresh);
+        ((Button) v.findViewById(R.id.btnPerfReset)).setText(R.string.perf_reset);
+        ((Button) v.findViewById(R.id.btnPerfExport)).setText(R.string.perf_export);
+    }
+
+    private void refresh() {
+        if (tvReport != null) tvReport.setText(PerfMetrics.dump());
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        tvReport = null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.firebasenavdemo.ui.fragments.adapters;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.google.android.material.color.MaterialColors;
+import com.google.android.material.shape.MaterialShapeDrawable;
+
+/**
+ * A list row that draws an item's title and subtitle itself, as a single view.
+ * It replaces a card holding a layout with two TextViews: there is no child hierarchy to
+ * measure, and the text comes pre-measured from a {@link RowLayoutCache}. Binding the
+ * same item again does nothing at all.
+ */
+public class ItemRowView extends View {
+
+    private final RowLayoutCache layouts;
+    private final int gap;
+    private SimpleItem item;
+    private RowLayoutCache.Entry entry;
+
+    /**
+     * @param context The context.
+     * @param layouts The shared cache of measured text.
+     */
+    public ItemRowView(@NonNull Context context, @NonNull RowLayoutCache layouts) {
+        super(context);
+        this.layouts = layouts;
+        gap = dp(4);
+        int padding = dp(12);
+        setPadding(padding, padding, padding, padding);
+
+        // Card look: rounded, elevated surface.
+        MaterialShapeDrawable card = MaterialShapeDrawable.createWithElevationOverlay(context, dp(2));
+        card.setCornerSize(dp(4));
+        card.setFillColor(ColorStateList.valueOf(
+                MaterialColors.getColor(context, com.google.android.material.R.attr.colorSurface, 0xFFFFFFFF)));
+        setBackground(card);
+        setElevation(dp(2));
+    }
+
+    /**
+     * Shows an item. Takes the measured text from the cache if it is there.
+     * @param item The item to display.
+     */
+    public void bind(@NonNull SimpleItem item) {
+        if (item.equals(this.item)) return;
+        this.item = item;
+        // Imported rows and older documents may have no subtitle.
+        setContentDescription(TextUtils.isEmpty(item.subtitle)
+                ? item.title : item.title + ", " + item.subtitle);
+        RowLayoutCache.Entry next = layouts.peek(item);
+        if (next == null) {
+            // Not measured yet at this width: measure during the next layout pass.
+            entry = null;
+            requestLayout();
+            return;
+        }
+        swap(next);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        layouts.setWidth(width - getPaddingLeft() - getPaddingRight());
+        if (item != null && (entry == null || layouts.peek(item) != entry)) {
+            entry = layouts.get(item);
+        }
+        setMeasuredDimension(width, heightFor(entry));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        if (entry == null) return;
+        int save = canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        entry.title.draw(canvas);
+        canvas.translate(0, entry.title.getHeight() + gap);
+        entry.subtitle.draw(canvas);
+        canvas.restoreToCount(save);
+    }
+
+    // Swaps in new text; only relayouts if the row height changes.
+    private void swap(@NonNull RowLayoutCache.Entry next) {
+        boolean resize = entry == null || heightFor(entry) != heightFor(next);
+        entry = next;
+        if (resize) requestLayout();
+        invalidate();
+    }
+
+    private int heightFor(RowLayoutCache.Entry e) {
+        int text = (e == null) ? 0 : e.title.getHeight() + gap + e.subtitle.getHeight();
+        return getPaddingTop() + text + getPaddingBottom();
+    }
+
+    private int dp(int value) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value,
+                getResources().getDisplayMetrics()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.firebasenavdemo.ui.fragments.adapters;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LruCache;
+import android.util.TypedValue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.google.android.material.color.MaterialColors;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measured text for item rows, computed ahead of binding.
+ *
+ * <p>A row's title and subtitle are laid out once into {@link StaticLayout}s and kept in
+ * a bounded LRU cache keyed by the item's text. Items are immutable and compared by
+ * value, so a cached entry can never be stale, and the fresh instances a packed list
+ * hands out for the same row still hit it; an entry only has to match the current
+ * text width. Layouts are built by the items pipeline for changed items and by a
+ * background prefetch for rows about to scroll into view, so binding a row normally
+ * just hands it a ready entry. A miss (e.g. the very first screen) is measured on the
+ * calling thread.</p>
+ */
+public final class RowLayoutCache {
+
+    /** Entries kept; a few screens' worth on any phone. */
+    private static final int MAX_ENTRIES = 512;
+
+    /**
+     * The measured title and subtitle of one item at one width.
+     */
+    static final class Entry {
+        final StaticLayout title;
+        final StaticLayout subtitle;
+        final int width;
+
+        Entry(@NonNull StaticLayout title, @NonNull StaticLayout subtitle, int width) {
+            this.title = title;
+            this.subtitle = subtitle;
+            this.width = width;
+        }
+    }
+
+    // Paints are only read after construction, so layouts may be built on any thread.
+    private final TextPaint titlePaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final TextPaint subtitlePaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final LruCache<SimpleItem, Entry> cache = new LruCache<>(MAX_ENTRIES);
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "row-layouts");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    // Bumped by every prefetch request, so superseded requests stop early.
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile int width;
+
+    /**
+     * @param context A themed context, used for text sizes and colours.
+     */
+    public RowLayoutCache(@NonNull Context context) {
+        titlePaint.setTextSize(sp(context, 16));
+        titlePaint.setTypeface(Typeface.DEFAULT_BOLD);
+        titlePaint.setColor(MaterialColors.getColor(context, android.R.attr.textColorPrimary, 0xDE000000));
+        subtitlePaint.setTextSize(sp(context, 14));
+        subtitlePaint.setColor(MaterialColors.getColor(context, android.R.attr.textColorSecondary, 0x8A000000));
+    }
+
+    /**
+     * Sets the width available to the text. Entries for other widths are dropped.
+     * @param width Text width in pixels.
+     */
+    void setWidth(int width) {
+        if (this.width == width) return;
+        this.width = width;
+        cache.evictAll();
+    }
+
+    /**
+     * Returns the cached entry for an item at the current width, or null.
+     */
+    @Nullable
+    Entry peek(@NonNull SimpleItem item) {
+        Entry e = cache.get(item);
+        return (e != null && e.width == width) ? e : null;
+    }
+
+    /**
+     * Returns the entry for an item, measuring it now if it is not cached.
+     */
+    @NonNull
+    Entry get(@NonNull SimpleItem item) {
+        Entry e = peek(item);
+        if (e == null) e = build(item, width);
+        return e;
+    }
+
+    /**
+     * Measures an item ahead of its bind. Any thread; does nothing until the width is known.
+     * @param item The item about to be displayed.
+     */
+    public void prepare(@NonNull SimpleItem item) {
+        int w = width;
+        if (w > 0 && peek(item) == null) build(item, w);
+    }
+
+    /**
+     * Measures a range of a list in the background, replacing any earlier request.
+     * @param items An immutable list, e.g. the adapter's current list.
+     * @param from First position, inclusive.
+     * @param to Last position, exclusive.
+     */
+    void prefetch(@NonNull List<SimpleItem> items, int from, int to) {
+        int gen = generation.incrementAndGet();
+        worker.execute(() -> {
+            for (int i = from; i < to && generation.get() == gen; i++) {
+                prepare(items.get(i));
+            }
+        });
+    }
+
+    /** Stops the background thread; pending prefetches are dropped. */
+    void shutdown() {
+        generation.incrementAndGet();
+        worker.shutdownNow();
+    }
+
+    @NonNull
+    private Entry build(@NonNull SimpleItem item, int w) {
+        int textWidth = Math.max(w, 1);
+        Entry e = new Entry(layout(item.title, titlePaint, textWidth),
+                layout(item.subtitle, subtitlePaint, textWidth), w);
+        cache.put(item, e);
+        return e;
+    }
+
+    @NonNull
+    private static StaticLayout layout(@Nullable String text, @NonNull TextPaint paint, int width) {
+        String s = (text == null) ? "" : text;
+        return StaticLayout.Builder.obtain(s, 0, s.length(), paint, width)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setIncludePad(true)
+                .build();
+    }
+
+    private static float sp(@NonNull Context context, float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value,
+                context.getResources().getDisplayMetrics());
+    }
+}
@@ -1,54 +1,206 @@
 package com.example.firebasenavdemo.ui.fragments.adapters;
 
-import android.view.LayoutInflater;
-import android.view.View;
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.TypedValue;
 import android.view.ViewGroup;
-import android.widget.TextView;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.firebasenavdemo.R;
-import com.example.firebasenavdemo.ui.fragments.model.SimpleItem;
+import com.example.firebasenavdemo.core.ItemsUpdate;
+import com.example.firebasenavdemo.core.PackedItems;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.example.firebasenavdemo.perf.PerfMetrics;
 
 import java.util.List;
 
 /**
  * A simple RecyclerView adapter for displaying a list of SimpleItem objects.
  * This is a basic adapter implementation that binds a list of data directly
- * to the views.
+ * to the views. Rows are {@link ItemRowView}s that draw text measured ahead of time
+ * by a {@link RowLayoutCache}, so binding swaps layouts instead of measuring text.
+ * Item ids are stable (derived from the document id), so row state and change
+ * animations survive even a full rebind.
  */
 public class SimpleItemAdapter extends RecyclerView.Adapter<SimpleItemAdapter.VH> {
 
+    // --- Change Payloads (bit flags, combined with |) ---
+    /** Payload flag: the item's title changed. */
+    public static final int PAYLOAD_TITLE = ItemsUpdate.PAYLOAD_TITLE;
+    /** Payload flag: the item's subtitle changed. */
+    public static final int PAYLOAD_SUBTITLE = ItemsUpdate.PAYLOAD_SUBTITLE;
+
+    /** Rows measured ahead of the visible range, in each scroll direction. */
+    private static final int PREFETCH_ROWS = 20;
+    /** Longest stretch of an idle main thread spent creating rows, so input stays responsive. */
+    private static final long PREWARM_SLICE_MS = 4;
+
     /**
-     * ViewHolder class that holds and manages the views for a single list item.
-     * This improves performance by avoiding repeated findViewById() calls.
+     * ViewHolder class that holds and manages the view for a single list item.
      */
     public static class VH extends RecyclerView.ViewHolder {
-        // View references for the list item.
-        TextView tvTitle, tvSubtitle;
+        // The row view; it is also the holder's itemView.
+        final ItemRowView row;
 
         /**
          * ViewHolder constructor.
-         * @param itemView The root view of the list item layout (row_simple_item.xml).
+         * @param row The row view.
          */
-        public VH(@NonNull View itemView) {
-            super(itemView);
-            // Find and cache the views by their ID.
-            tvTitle = itemView.findViewById(R.id.tvTitle);
-            tvSubtitle = itemView.findViewById(R.id.tvSubtitle);
+        public VH(@NonNull ItemRowView row) {
+            super(row);
+            this.row = row;
         }
     }
 
-    // The list of items to be displayed by the adapter.
-    private final List<SimpleItem> data;
+    // The immutable list of items currently displayed by the adapter.
+    private PackedItems data = PackedItems.EMPTY;
+    // Forwards replayed list operations to this adapter's notify* methods.
+    private final ItemsUpdate.Callback updateCallback = new ItemsUpdate.Callback() {
+        @Override public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override public void onChanged(int position, int count, @Nullable Object payload) {
+            notifyItemRangeChanged(position, count, payload);
+        }
+    };
+    // Measured row text, shared by all rows.
+    private final RowLayoutCache layouts;
+    private int prefetchFrom = -1;
+    private int prefetchTo = -1;
+    // Creates pooled rows while the main thread is idle; null when done.
+    @Nullable private MessageQueue.IdleHandler prewarm;
 
     /**
-     * Constructor for the adapter.
-     * @param data A list of SimpleItem objects to populate the adapter with.
+     * @param context A themed context for the rows' text styles.
      */
-    public SimpleItemAdapter(List<SimpleItem> data) {
-        this.data = data;
+    public SimpleItemAdapter(@NonNull Context context) {
+        layouts = new RowLayoutCache(context);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Creates row holders while the main thread is idle and parks them in the list's
+     * recycled view pool, so the first screen and the first fling reuse them instead of
+     * creating rows in the middle of a frame. Views belong to the main thread, so they are
+     * created there, a few at a time between frames; only text measuring runs in the
+     * background (see {@link #prefetchAround}). Call on the main thread while the list's
+     * data is still loading.
+     * @param list The RecyclerView this adapter is (or will be) attached to.
+     */
+    @MainThread
+    public void prewarm(@NonNull RecyclerView list) {
+        // Enough rows for two screens of the smallest possible row (two lines of text).
+        float density = list.getResources().getDisplayMetrics().density;
+        int screen = list.getResources().getDisplayMetrics().heightPixels;
+        int count = 2 * (int) Math.ceil(screen / (64 * density)) + 2;
+        RecyclerView.RecycledViewPool pool = list.getRecycledViewPool();
+        pool.setMaxRecycledViews(0, count);
+
+        stopPrewarm();
+        prewarm = new MessageQueue.IdleHandler() {
+            private int created;
+
+            @Override
+            public boolean queueIdle() {
+                if (list.getAdapter() != SimpleItemAdapter.this) return false;
+                long until = SystemClock.uptimeMillis() + PREWARM_SLICE_MS;
+                do {
+                    // createViewHolder only uses the parent for its context and resources.
+                    pool.putRecycledView(createViewHolder(list, 0));
+                    created++;
+                } while (created < count && SystemClock.uptimeMillis() < until);
+                if (created < count) return true; // Continue at the next idle.
+                prewarm = null;
+                return false;
+            }
+        };
+        Looper.myQueue().addIdleHandler(prewarm);
+    }
+
+    /**
+     * The cache of measured row text, so that items can be measured before they are bound.
+     */
+    @NonNull
+    public RowLayoutCache getLayouts() {
+        return layouts;
+    }
+
+    /**
+     * Measures the rows around the visible range in the background, so they bind
+     * without measuring when they scroll in.
+     * @param firstVisible Adapter position of the first visible row.
+     * @param lastVisible Adapter position of the last visible row.
+     */
+    public void prefetchAround(int firstVisible, int lastVisible) {
+        if (firstVisible < 0) return;
+        int from = Math.max(0, firstVisible - PREFETCH_ROWS);
+        int to = Math.min(data.size(), lastVisible + 1 + PREFETCH_ROWS);
+        if (from == prefetchFrom && to == prefetchTo) return;
+        prefetchFrom = from;
+        prefetchTo = to;
+        layouts.prefetch(data, from, to);
+    }
+
+    /**
+     * Stops pre-warming and releases the background measuring thread. Call on the main
+     * thread when the list's view is destroyed.
+     */
+    @MainThread
+    public void release() {
+        stopPrewarm();
+        layouts.shutdown();
+    }
+
+    private void stopPrewarm() {
+        if (prewarm != null) {
+            Looper.myQueue().removeIdleHandler(prewarm);
+            prewarm = null;
+        }
+    }
+
+    /**
+     * Displays the result of the items pipeline. If the update was computed against the
+     * list currently shown, only its fine-grained operations are dispatched; otherwise
+     * the whole list is rebound.
+     * @param update A finished update produced off the main thread.
+     */
+    public void submit(@NonNull ItemsUpdate update) {
+        long t = PerfMetrics.begin(PerfMetrics.ITEMS_SUBMIT);
+        try {
+            boolean incremental = update.base == data;
+            data = update.items;
+            prefetchFrom = prefetchTo = -1;
+            if (incremental) {
+                update.dispatchTo(updateCallback);
+            } else {
+                notifyDataSetChanged();
+            }
+        } finally {
+            PerfMetrics.end(PerfMetrics.ITEMS_SUBMIT, t);
+        }
+    }
+
+    /**
+     * Returns the item displayed at the given adapter position.
+     * @param position The adapter position.
+     */
+    @NonNull
+    public SimpleItem getItem(int position) {
+        return data.get(position);
     }
 
     /**
@@ -60,10 +212,20 @@ public class SimpleItemAdapter extends RecyclerView.Adapter<SimpleItemAdapter.VH
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        // Inflate the layout for a single list item.
-        View v = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.row_simple_item, parent, false);
-        return new VH(v);
+        long t = PerfMetrics.begin(PerfMetrics.ROWS_CREATE);
+        try {
+            // One flat view per row; the margins reproduce the old card spacing.
+            ItemRowView row = new ItemRowView(parent.getContext(), layouts);
+            RecyclerView.LayoutParams lp = new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            int margin = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 8,
+                    parent.getResources().getDisplayMetrics()));
+            lp.setMargins(margin, margin, margin, margin);
+            row.setLayoutParams(lp);
+            return new VH(row);
+        } finally {
+            PerfMetrics.end(PerfMetrics.ROWS_CREATE, t);
+        }
     }
 
     /**
@@ -74,11 +236,47 @@ public class SimpleItemAdapter extends RecyclerView.Adapter<SimpleItemAdapter.VH
      */
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        // Get the data model for this position.
-        SimpleItem it = data.get(position);
-        // Set the text for the title and subtitle views.
-        holder.tvTitle.setText(it.title);
-        holder.tvSubtitle.setText(it.subtitle);
+        // Hand the row its item; an already measured item only swaps layouts, and the
+        // same item as before costs nothing.
+        long t = PerfMetrics.begin(PerfMetrics.ROWS_BIND);
+        try {
+            holder.row.bind(data.get(position));
+        } finally {
+            PerfMetrics.end(PerfMetrics.ROWS_BIND, t);
+        }
+    }
+
+    /**
+     * Called by the RecyclerView for partial updates. Payload flags with no visible
+     * change are ignored; otherwise the row swaps in the item's new layouts.
+     * @param holder The ViewHolder which should be updated.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The payloads passed to notifyItemChanged(), or an empty list.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        // No payload means the whole row must be rebound.
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // Several notifications may have been merged before this bind; combine their flags.
+        int flags = 0;
+        for (Object p : payloads) {
+            if (p instanceof Integer) flags |= (Integer) p;
+        }
+        if ((flags & (PAYLOAD_TITLE | PAYLOAD_SUBTITLE)) != 0) holder.row.bind(data.get(position));
+    }
+
+    /**
+     * Returns a stable id for the row: a 64-bit FNV-1a hash of the document id, so the
+     * same document keeps its id across list updates. Read from the packed list without
+     * creating the item.
+     * @param position The adapter position.
+     */
+    @Override
+    public long getItemId(int position) {
+        return data.stableId(position, RecyclerView.NO_ID);
     }
 
     /**
@@ -0,0 +1,253 @@
+package com.example.firebasenavdemo.ui.fragments.viewmodels;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.firebasenavdemo.core.ItemsUpdate;
+import com.example.firebasenavdemo.core.model.SimpleItem;
+import com.example.firebasenavdemo.data.FirestoreConfig;
+import com.example.firebasenavdemo.data.ItemCodec;
+import com.example.firebasenavdemo.data.ItemDeleteQueue;
+import com.example.firebasenavdemo.data.ItemStore;
+import com.example.firebasenavdemo.data.ItemsPager;
+import com.example.firebasenavdemo.data.ItemsPipeline;
+import com.example.firebasenavdemo.data.ItemsPrefetcher;
+import com.example.firebasenavdemo.data.ItemsRepository;
+import com.example.firebasenavdemo.data.ItemsSyncWorker;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.Query;
+
+import java.util.Locale;
+
+/**
+ * Holds the items screen's data independently of its views.
+ * It owns the Firestore listener (through the repository or pager) and the decoded
+ * list in the pipeline, and outlives view recreation: after a rotation or a language
+ * switch the new views are handed the latest list without a new query or any decoding.
+ * If the items were prefetched at sign-in or startup, it takes over that running session.
+ */
+public class ItemsViewModel extends AndroidViewModel {
+
+    /**
+     * A developer flag. If set to true, the list is loaded page by page as the user scrolls
+     * and only a window of pages around the viewport stays in memory with a live listener.
+     * If false, the whole collection is mirrored in the local item store, which renders the
+     * last known state immediately on open and is kept in sync by a single listener.
+     */
+    private static final boolean USE_PAGING = false;
+
+    /**
+     * A developer flag for paging mode. {@link ItemsPager.ReadMode#LIVE} keeps a listener on
+     * every resident page; {@link ItemsPager.ReadMode#CACHE_FIRST} reads each page once,
+     * from the local cache when it has the page, trading live updates for fewer reads.
+     */
+    private static final ItemsPager.ReadMode PAGE_READ_MODE = ItemsPager.ReadMode.LIVE;
+
+    /**
+     * A developer flag. If set to true, titles are sorted by the rules of the app's language
+     * (accents and case next to their base letters) using collation keys computed once per
+     * item. If false, the server's code point order is kept. Paging always uses the server's
+     * order, since pages are cut by it.
+     */
+    private static final boolean USE_LOCALE_ORDER = true;
+
+    // --- Exposed State ---
+    private final MutableLiveData<ItemsUpdate> items = new MutableLiveData<>();
+    private final MutableLiveData<Exception> errors = new MutableLiveData<>();
+
+    // --- Firebase & Data ---
+    private final CollectionReference itemsRef;
+    private final ItemsPipeline pipeline;
+    private ItemsRepository repository; // Store-backed live data; only set when not paging.
+    private ItemsPager pager; // Only set in paging mode.
+    private final ItemDeleteQueue deletes;
+
+    /**
+     * Starts loading the signed-in user's items.
+     * @param application The application, used for the local item store.
+     */
+    public ItemsViewModel(@NonNull Application application) {
+        super(application);
+        // Create a reference to the user-specific 'items' sub-collection.
+        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        itemsRef = FirestoreConfig.db().collection("users").document(uid).collection("items");
+
+        // --- Live Query (Real-time Data Synchronization) ---
+        // Snapshots are decoded, sorted and diffed on a background thread; only the finished
+        // list and its operations reach the main thread.
+        ItemsPipeline.Listener listener = new ItemsPipeline.Listener() {
+            @Override public void onItemsUpdated(@NonNull ItemsUpdate update) {
+                items.setValue(update);
+            }
+
+            @Override public void onItemsError(@NonNull Exception e) {
+                errors.setValue(e);
+            }
+        };
+        ItemsPrefetcher.Session warm = ItemsPrefetcher.take(uid);
+        if (warm != null) {
+            // Already loading since sign-in; the newest list is delivered right away.
+            pipeline = warm.getPipeline();
+            repository = warm.getRepository();
+            pager = warm.getPager();
+            warm.attach(listener);
+        } else if (USE_PAGING) {
+            pipeline = new ItemsPipeline(listener);
+            // Pages are cut by the server's order, so they are never re-sorted on the client.
+            pager = new ItemsPager(query(itemsRef), pipeline, PAGE_READ_MODE);
+            pager.start();
+        } else {
+            pipeline = new ItemsPipeline(listener);
+            // Set the order before the first items arrive, so they are sorted once.
+            setSortLocale(application.getResources().getConfiguration().getLocales().get(0));
+            repository = new ItemsRepository(ItemStore.get(application), uid, query(itemsRef), pipeline);
+            repository.start();
+        }
+        deletes = new ItemDeleteQueue(itemsRef, pipeline, errors::setValue);
+    }
+
+    /**
+     * Starts loading a user's items in the background, the way this screen would, so that
+     * opening it later renders at once, and schedules the periodic delta sync of the item
+     * store. Call on the main thread as soon as the user is known.
+     * @param context Any context.
+     * @param uid The signed-in user's id.
+     */
+    public static void prefetch(@NonNull Context context, @NonNull String uid) {
+        if (!USE_PAGING) ItemsSyncWorker.schedule(context);
+        CollectionReference ref = FirestoreConfig.db()
+                .collection("users").document(uid).collection("items");
+        Locale locale = (USE_LOCALE_ORDER && !USE_PAGING)
+                ? context.getResources().getConfiguration().getLocales().get(0) : null;
+        ItemsPrefetcher.prefetch(context, uid, query(ref), USE_PAGING ? PAGE_READ_MODE : null, locale);
+    }
+
+    // The ordered query over a user's items collection.
+    @NonNull
+    private static Query query(@NonNull CollectionReference itemsRef) {
+        return itemsRef.orderBy("title");
+    }
+
+    /**
+     * The latest list. A new observer immediately receives the current list; its base
+     * will not match a fresh adapter, so the adapter binds it in full.
+     */
+    @NonNull
+    public LiveData<ItemsUpdate> getItems() {
+        return items;
+    }
+
+    /** Listener errors not yet shown; call {@link #errorShown()} after displaying one. */
+    @NonNull
+    public LiveData<Exception> getErrors() {
+        return errors;
+    }
+
+    /** Marks the current error as displayed so it is not shown again after recreation. */
+    public void errorShown() {
+        errors.setValue(null);
+    }
+
+    /**
+     * Adds an item to the user's collection. It is listed at once, before the server has
+     * confirmed the write.
+     * @param item The item; its id is set to the new document's.
+     * @return The write's task.
+     */
+    @NonNull
+    public Task<Void> addItem(@NonNull SimpleItem item) {
+        DocumentReference doc = itemsRef.document();
+        if (repository != null) return repository.add(doc, item);
+        // The page listeners include pending local writes themselves.
+        item.id = doc.getId();
+        return doc.set(ItemCodec.encode(item));
+    }
+
+    /** Whether the list is loaded page by page and needs scroll positions. */
+    public boolean isPaging() {
+        return pager != null;
+    }
+
+    /**
+     * Reports the visible row range to the pager, if paging.
+     * @param firstVisible Adapter position of the first visible row.
+     * @param lastVisible Adapter position of the last visible row.
+     */
+    public void onScrolled(int firstVisible, int lastVisible) {
+        if (pager != null) pager.onScrolled(firstVisible, lastVisible);
+    }
+
+    /**
+     * Sets the hook that prepares changed items for display on the pipeline's thread.
+     * @param preparer The hook, or null when the list's view is gone.
+     */
+    public void setItemPreparer(@Nullable ItemsPipeline.ItemPreparer preparer) {
+        pipeline.setPreparer(preparer);
+    }
+
+    /**
+     * Filters the list by a search text. The filtered list arrives through {@link #getItems()}.
+     * @param text The search text; blank shows every item.
+     */
+    public void setQuery(@Nullable String text) {
+        pipeline.setQuery(text);
+    }
+
+    /**
+     * Sorts the list for the app's current language. Call when the views are (re)created;
+     * the list is re-sorted only if the language actually changed.
+     * @param locale The locale of the current configuration.
+     */
+    public void setSortLocale(@NonNull Locale locale) {
+        if (USE_LOCALE_ORDER && !USE_PAGING) pipeline.setSortLocale(locale);
+    }
+
+    /**
+     * Removes an item from the list at once and deletes it together with other swipes
+     * of the next few seconds, unless {@link #undoDeletes()} is called first.
+     * @param id The document id.
+     * @return The number of deletions that can currently be undone.
+     */
+    public int deleteLater(@NonNull String id) {
+        deletes.delete(id);
+        return deletes.size();
+    }
+
+    /** Restores every item whose deletion has not been sent yet. */
+    public void undoDeletes() {
+        deletes.undo();
+    }
+
+    /** Sends pending deletions now, e.g. because the user is leaving the screen. */
+    public void flushDeletes() {
+        deletes.flush();
+    }
+
+    /**
+     * Called when the screen is gone for good (not on configuration changes).
+     * Sends pending deletions, detaches the Firestore listeners and stops the background
+     * pipeline.
+     */
+    @Override
+    protected void onCleared() {
+        deletes.flush();
+        if (repository != null) {
+            repository.stop();
+            repository = null;
+        }
+        if (pager != null) {
+            pager.stop();
+            pager = null;
+        }
+        pipeline.close();
+    }
+}
@@ -0,0 +1,68 @@
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+// Must match the host the app under test was built with (-PfirebaseEmulatorHost=...).
+val firebaseEmulatorHost = providers.gradleProperty("firebaseEmulatorHost").getOrElse("10.0.2.2")
+
+android {
+    namespace = "com.example.firebasenavdemo.benchmark"
+    compileSdk = 36
+
+    defaultConfig {
+        minSdk = 31
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        testInstrumentationRunnerArguments["firebaseEmulatorHost"] = firebaseEmulatorHost
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+}
+
+// Generated profiles are copied into :app (src/release/generated/baselineProfiles).
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.espresso.core)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
+
+// The ui.localeSwitch medians of LocaleSwitchBenchmark's last connected run, per device:
+// in place next to recreating. Run after connectedBenchmarkReleaseAndroidTest.
+tasks.register("localeSwitchMedians") {
+    group = "verification"
+    description = "Prints the in-place and recreating locale switch medians of the last run."
+    val results = fileTree(layout.buildDirectory.dir("outputs/connected_android_test_additional_output")) {
+        include("**/*benchmarkData.json")
+    }
+    inputs.files(results)
+    doLast {
+        if (results.isEmpty) println("No benchmark results; run connectedBenchmarkReleaseAndroidTest first.")
+        for (file in results.files) {
+            @Suppress("UNCHECKED_CAST")
+            val benchmarks = (groovy.json.JsonSlurper().parse(file) as Map<String, Any?>)["benchmarks"]
+                    as List<Map<String, Any?>>
+            fun median(test: String): Any? {
+                val run = benchmarks.firstOrNull {
+                    it["name"] == test && it["className"].toString().endsWith(".LocaleSwitchBenchmark")
+                } ?: return "-"
+                @Suppress("UNCHECKED_CAST")
+                val metrics = run["metrics"] as Map<String, Map<String, Any?>>
+                return metrics["localeSwitchMs"]?.get("median") ?: "-"
+            }
+            println("${file.parentFile.name}: in place ${median("switchLanguageInPlace")} ms, "
+                    + "recreating ${median("switchLanguageRecreating")} ms")
+        }
+    }
+}
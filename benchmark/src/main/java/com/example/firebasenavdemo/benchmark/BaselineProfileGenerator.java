@@ -0,0 +1,38 @@
+package com.example.firebasenavdemo.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Generates the baseline profile for :app from the startup and items-list journeys.
+ *
+ * Run with: ./gradlew :app:generateBaselineProfile -PfirebaseEmulatorHost=10.0.2.2
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @BeforeClass
+    public static void seed() throws Exception {
+        EmulatorSeeder.seed(Journeys.EMAIL, Journeys.PASSWORD, Journeys.ITEM_COUNT);
+    }
+
+    @Test
+    public void generate() {
+        rule.collect(Journeys.PACKAGE, scope -> {
+            Journeys.ensureSignedIn(scope);
+            Journeys.openItems(scope);
+            Journeys.flingItems(scope);
+            return Unit.INSTANCE;
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.firebasenavdemo.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Seeds the local Firebase Auth and Firestore emulators through their REST APIs, so
+ * benchmarks always run against the same user and the same items, without a network.
+ * Seeding is idempotent: the user is reused and items have fixed document ids.
+ */
+public final class EmulatorSeeder {
+
+    /** Project id from app/google-services.json; the emulators key data by it. */
+    private static final String PROJECT_ID = "fir-navdemo";
+    private static final int AUTH_PORT = 9099;
+    private static final int FIRESTORE_PORT = 8080;
+    private static final int WRITES_PER_COMMIT = 500;
+
+    private EmulatorSeeder() {}
+
+    /** Returns the emulator host passed by the build (-PfirebaseEmulatorHost). */
+    @NonNull
+    public static String host() {
+        return InstrumentationRegistry.getArguments().getString("firebaseEmulatorHost", "10.0.2.2");
+    }
+
+    /**
+     * Creates (or signs in) the given user and writes {@code itemCount} items for it.
+     * @return The user's uid.
+     */
+    @NonNull
+    public static String seed(@NonNull String email, @NonNull String password, int itemCount)
+            throws IOException, JSONException {
+        String uid = ensureUser(email, password);
+        String documents = "projects/" + PROJECT_ID + "/databases/(default)/documents";
+        for (int start = 0; start < itemCount; start += WRITES_PER_COMMIT) {
+            JSONArray writes = new JSONArray();
+            for (int i = start; i < Math.min(itemCount, start + WRITES_PER_COMMIT); i++) {
+                JSONObject fields = new JSONObject()
+                        .put("title", string(String.format(Locale.ROOT, "Item %05d", i)))
+                        .put("subtitle", string("Seeded item number " + i));
+                writes.put(new JSONObject().put("update", new JSONObject()
+                        .put("name", documents + "/users/" + uid + "/items/"
+                                + String.format(Locale.ROOT, "seed-%05d", i))
+                        .put("fields", fields)));
+            }
+            // "Bearer owner" is the emulator's admin token; it bypasses security rules.
+            post("http://" + host() + ":" + FIRESTORE_PORT + "/v1/" + documents + ":commit",
+                    new JSONObject().put("writes", writes), "owner");
+        }
+        return uid;
+    }
+
+    private static String ensureUser(String email, String password) throws IOException, JSONException {
+        String base = "http://" + host() + ":" + AUTH_PORT
+                + "/identitytoolkit.googleapis.com/v1/accounts:";
+        JSONObject body = new JSONObject()
+                .put("email", email)
+                .put("password", password)
+                .put("returnSecureToken", true);
+        try {
+            return post(base + "signUp?key=emulator", body, null).getString("localId");
+        } catch (IOException alreadyExists) {
+            return post(base + "signInWithPassword?key=emulator", body, null).getString("localId");
+        }
+    }
+
+    private static JSONObject string(String value) throws JSONException {
+        return new JSONObject().put("stringValue", value);
+    }
+
+    private static JSONObject post(String url, JSONObject body, String bearer)
+            throws IOException, JSONException {
+        HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            c.setRequestMethod("POST");
+            c.setDoOutput(true);
+            c.setRequestProperty("Content-Type", "application/json");
+            if (bearer != null) c.setRequestProperty("Authorization", "Bearer " + bearer);
+            try (OutputStream out = c.getOutputStream()) {
+                out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            int code = c.getResponseCode();
+            if (code / 100 != 2) {
+                throw new IOException("HTTP " + code + " from " + url + ": " + read(c.getErrorStream()));
+            }
+            return new JSONObject(read(c.getInputStream()));
+        } finally {
+            c.disconnect();
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) return "";
+        try (InputStream is = in) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = is.read(chunk)) > 0) buf.write(chunk, 0, n);
+            return buf.toString("UTF-8");
+        }
+    }
+}
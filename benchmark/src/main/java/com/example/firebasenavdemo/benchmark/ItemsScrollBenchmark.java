@@ -0,0 +1,61 @@
+package com.example.firebasenavdemo.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures frame timing while fling-scrolling the seeded ItemsFragment list.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemsScrollBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void seed() throws Exception {
+        EmulatorSeeder.seed(Journeys.EMAIL, Journeys.PASSWORD, Journeys.ITEM_COUNT);
+    }
+
+    @Test
+    public void flingItemsNoCompilation() {
+        fling(new CompilationMode.None());
+    }
+
+    @Test
+    public void flingItemsBaselineProfile() {
+        fling(new CompilationMode.Partial());
+    }
+
+    private void fling(CompilationMode compilationMode) {
+        rule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    Journeys.ensureSignedIn(scope);
+                    Journeys.openItems(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.flingItems(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.firebasenavdemo.benchmark;
+
+import android.content.Intent;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import kotlin.Unit;
+
+/**
+ * User journeys shared by the benchmarks and the baseline profile generator.
+ */
+final class Journeys {
+
+    static final String PACKAGE = "com.example.firebasenavdemo";
+
+    /** The seeded benchmark user. */
+    static final String EMAIL = "bench@example.com";
+    static final String PASSWORD = "bench-password";
+    /** Enough items for several screens of flinging. */
+    static final int ITEM_COUNT = 2000;
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {}
+
+    /**
+     * Starts the app and, if it lands on the login screen, signs in with the seeded user.
+     * The session is persisted, so later cold starts route straight to MainActivity.
+     */
+    static void ensureSignedIn(@NonNull MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        UiObject2 email = device.wait(Until.findObject(By.res(PACKAGE, "etEmail")), 2_000);
+        if (email != null) {
+            email.setText(EMAIL);
+            device.findObject(By.res(PACKAGE, "etPassword")).setText(PASSWORD);
+            device.findObject(By.res(PACKAGE, "btnLogin")).click();
+        }
+        device.wait(Until.hasObject(By.res(PACKAGE, "drawerLayout")), TIMEOUT_MS);
+    }
+
+    /**
+     * Restarts MainActivity in a new task with the flag that makes it recreate itself on a
+     * language switch, as it did before switching in place. Call after
+     * {@link #ensureSignedIn}.
+     */
+    static void startRecreatingOnLocaleSwitch(@NonNull MacrobenchmarkScope scope) {
+        scope.startActivityAndWait(intent -> {
+            intent.setClassName(PACKAGE, PACKAGE + ".ui.MainActivity");
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            // LocaleSwitcher.EXTRA_RECREATE_ON_SWITCH
+            intent.putExtra(PACKAGE + ".extra.RECREATE_ON_LOCALE_SWITCH", true);
+            return Unit.INSTANCE;
+        });
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE, "drawerLayout")), TIMEOUT_MS);
+    }
+
+    /**
+     * Opens the Items screen through the drawer and waits for the seeded rows.
+     */
+    static void openItems(@NonNull MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.wait(Until.findObject(By.desc("Open navigation drawer")), TIMEOUT_MS).click();
+        device.wait(Until.findObject(By.text("Items")), TIMEOUT_MS).click();
+        device.wait(Until.hasObject(By.res(PACKAGE, "recycler").hasChild(By.depth(1))), TIMEOUT_MS);
+    }
+
+    /**
+     * Opens the Language screen through the drawer (in English).
+     */
+    static void openLanguage(@NonNull MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.wait(Until.findObject(By.desc("Open navigation drawer")), TIMEOUT_MS).click();
+        device.wait(Until.findObject(By.text("Language")), TIMEOUT_MS).click();
+        device.wait(Until.hasObject(By.res(PACKAGE, "btnApplyLanguage")), TIMEOUT_MS);
+    }
+
+    /**
+     * Switches the display language on the Language screen and waits for the toolbar
+     * title in the new language.
+     * @param radioId The resource id of the language's radio button.
+     * @param title The Language screen's title in that language.
+     */
+    static void switchLanguage(@NonNull MacrobenchmarkScope scope, @NonNull String radioId,
+                               @NonNull String title) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE, radioId)).click();
+        device.findObject(By.res(PACKAGE, "btnApplyLanguage")).click();
+        device.wait(Until.hasObject(By.res(PACKAGE, "toolbar").hasDescendant(By.text(title))), TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    /**
+     * Flings the items list down and back up a few times.
+     */
+    static void flingItems(@NonNull MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.findObject(By.res(PACKAGE, "recycler"));
+        // Keep the gesture away from the system navigation area.
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < 3; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+}
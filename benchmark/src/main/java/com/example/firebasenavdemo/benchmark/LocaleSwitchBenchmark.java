@@ -0,0 +1,75 @@
+package com.example.firebasenavdemo.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Measures switching the display language to Spanish on the Language screen, with the
+ * items list loaded behind it. The app's {@code ui.localeSwitch} section runs from the
+ * Apply click to the first frame in the new language. Each iteration switches back to
+ * English afterwards, outside the measured section.
+ *
+ * <p>{@link #switchLanguageInPlace()} measures the current path, which re-binds the
+ * activity; {@link #switchLanguageRecreating()} has the activity recreate itself on the
+ * switch as it did before, for comparison on the same device.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class LocaleSwitchBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void seed() throws Exception {
+        EmulatorSeeder.seed(Journeys.EMAIL, Journeys.PASSWORD, Journeys.ITEM_COUNT);
+    }
+
+    @Test
+    public void switchLanguageInPlace() {
+        switchLanguage(false);
+    }
+
+    @Test
+    public void switchLanguageRecreating() {
+        switchLanguage(true);
+    }
+
+    private void switchLanguage(boolean recreate) {
+        rule.measureRepeated(
+                Journeys.PACKAGE,
+                Arrays.asList(
+                        new TraceSectionMetric("ui.localeSwitch", TraceSectionMetric.Mode.First.INSTANCE,
+                                "localeSwitch", true),
+                        new FrameTimingMetric()),
+                new CompilationMode.Partial(),
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    Journeys.ensureSignedIn(scope);
+                    if (recreate) Journeys.startRecreatingOnLocaleSwitch(scope);
+                    Journeys.openItems(scope);
+                    Journeys.openLanguage(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.switchLanguage(scope, "rbSpanish", "Idioma");
+                    Journeys.switchLanguage(scope, "rbEnglish", "Language");
+                    return Unit.INSTANCE;
+                });
+    }
+}
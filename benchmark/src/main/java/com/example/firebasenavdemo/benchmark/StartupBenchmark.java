@@ -0,0 +1,70 @@
+package com.example.firebasenavdemo.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures cold and warm start through SplashActivity into MainActivity for a signed-in
+ * user, with and without the baseline profile, against the seeded local emulators.
+ *
+ * Run with: ./gradlew :benchmark:connectedBenchmarkReleaseAndroidTest -PfirebaseEmulatorHost=10.0.2.2
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void seed() throws Exception {
+        EmulatorSeeder.seed(Journeys.EMAIL, Journeys.PASSWORD, Journeys.ITEM_COUNT);
+    }
+
+    @Test
+    public void coldStartNoCompilation() {
+        startup(new CompilationMode.None(), StartupMode.COLD);
+    }
+
+    @Test
+    public void coldStartBaselineProfile() {
+        startup(new CompilationMode.Partial(), StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStartBaselineProfile() {
+        startup(new CompilationMode.Partial(), StartupMode.WARM);
+    }
+
+    private void startup(CompilationMode compilationMode, StartupMode startupMode) {
+        rule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    // Make sure the session exists, so the splash routes to MainActivity.
+                    Journeys.ensureSignedIn(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}
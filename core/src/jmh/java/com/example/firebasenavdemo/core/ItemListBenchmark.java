@@ -0,0 +1,169 @@
+package com.example.firebasenavdemo.core;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the items list processing at several collection sizes. Run with
+ * {@code ./gradlew :core:jmh}; the GC profiler adds allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ItemListBenchmark {
+
+    private static final String[] WORDS = {
+            "apple", "banana", "canción", "niño", "zebra", "árbol", "mango", "Éclair",
+            "grape", "kiwi", "lemon", "melón", "olive", "pear", "quince", "rábano"
+    };
+
+    // Documents per bulkChange batch; above ItemList's bulk threshold.
+    private static final int BULK_BATCH = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private final Object source = new Object();
+    private List<SimpleItem> items;
+    private IntList all;
+    private IntList half;
+    private int[] shuffled;
+    private List<SimpleItem> bulkUp;
+    private List<SimpleItem> bulkDown;
+    private ItemList loaded;
+    private ItemSearchIndex index;
+    private ItemSearchIndex.Query query;
+    private int tick;
+
+    /**
+     * Generates the benchmark's items: a word and a random token as the title, a word and
+     * the index as the subtitle. Shared with {@link RetainedHeap}.
+     */
+    static List<SimpleItem> items(int size) {
+        Random random = new Random(42);
+        List<SimpleItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + Integer.toString(random.nextInt(1 << 30), 36);
+            String subtitle = WORDS[random.nextInt(WORDS.length)] + " " + i;
+            items.add(new SimpleItem(String.format("doc-%08d", i), title, subtitle));
+        }
+        return items;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = items(size);
+        loaded = new ItemList();
+        loaded.apply(source, items, Collections.emptyList());
+        all = loaded.slots();
+        half = new IntList(size / 2);
+        for (int i = 0; i < all.size(); i += 2) half.add(all.get(i));
+        shuffled = all.toArray();
+        Random random = new Random(7);
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = t;
+        }
+        // Two versions of the same spread-out documents, so every batch moves them all.
+        int batch = Math.min(BULK_BATCH, size);
+        bulkUp = new ArrayList<>(batch);
+        bulkDown = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            SimpleItem old = items.get((int) ((long) i * size / batch));
+            bulkUp.add(new SimpleItem(old.id, "aaa " + old.title, old.subtitle));
+            bulkDown.add(new SimpleItem(old.id, "zzz " + old.title, old.subtitle));
+        }
+
+        ItemColumns columns = new ItemColumns();
+        index = new ItemSearchIndex(columns);
+        for (SimpleItem item : items) {
+            index.add(columns.add(item, null));
+        }
+        query = ItemSearchIndex.parse("arbol a");
+    }
+
+    /** Initial load: every document of a first snapshot applied at once. */
+    @Benchmark
+    public ItemsUpdate initialLoad() {
+        return new ItemList().apply(source, items, Collections.emptyList());
+    }
+
+    /** Initial load sorted for a locale, including one collation key per item. */
+    @Benchmark
+    public ItemsUpdate initialLoadCollated() {
+        ItemList list = new ItemList();
+        list.setSortLocale(Locale.forLanguageTag("es-ES"));
+        return list.apply(source, items, Collections.emptyList());
+    }
+
+    /** One modified document that moves to another position. */
+    @Benchmark
+    public ItemsUpdate singleChange() {
+        SimpleItem old = items.get(tick++ % size);
+        String title = (tick & 1) == 0 ? "aaa " + old.id : "zzz " + old.id;
+        return loaded.apply(source, Collections.singletonList(new SimpleItem(old.id, title, old.subtitle)),
+                Collections.emptyList());
+    }
+
+    /**
+     * A batch of modified documents large enough for the bulk path: the new versions are
+     * sorted and merged into the list, then the displayed list is diffed once.
+     */
+    @Benchmark
+    public ItemsUpdate bulkChange() {
+        return loaded.apply(source, (tick++ & 1) == 0 ? bulkUp : bulkDown, Collections.emptyList());
+    }
+
+    /** Sorting every loaded slot from a shuffled order, with the list's own merge sort. */
+    @Benchmark
+    public IntList sort() {
+        IntList copy = new IntList(shuffled.length);
+        for (int slot : shuffled) copy.add(slot);
+        loaded.sort(copy);
+        return copy;
+    }
+
+    /** Diffing a full list against every other item of it. */
+    @Benchmark
+    public void diff(Blackhole bh) {
+        loaded.diffSorted(all, half, new ItemsUpdate.Callback() {
+            @Override public void onInserted(int position, int count) { bh.consume(position); }
+            @Override public void onRemoved(int position, int count) { bh.consume(position); }
+            @Override public void onMoved(int fromPosition, int toPosition) { bh.consume(fromPosition); }
+            @Override public void onChanged(int position, int count, Object payload) { bh.consume(position); }
+        });
+    }
+
+    /** A two-word search query against the index alone. */
+    @Benchmark
+    public BitSet search() {
+        return index.search(query);
+    }
+
+    /** Filtering the displayed list by a query and clearing it again. */
+    @Benchmark
+    public void filterAndClear(Blackhole bh) {
+        bh.consume(loaded.setQuery(query));
+        bh.consume(loaded.setQuery(null));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.firebasenavdemo.core;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap retained per item by a loaded {@link ItemList}, next to the same
+ * items held as objects. JMH's GC profiler reports allocation, not what stays reachable,
+ * so this is a separate harness: run with {@code ./gradlew :core:retainedHeap}.
+ *
+ * <p>Rows come in comparable pairs: storage alone (objects with an id map against the
+ * packed columns with a published list) and storage with search (objects with a map
+ * from the same word prefixes to items against a whole {@code ItemList}, which also
+ * keeps its id table, owners and working lists).</p>
+ *
+ * <p>Each structure is built from the benchmark's items and kept reachable, and the used
+ * heap after a full collection is compared with the used heap before it was built; the
+ * median of several runs is printed. The input items are excluded. Use a collector whose {@code System.gc()} is a full,
+ * synchronous collection (the task runs with the serial collector).</p>
+ */
+public final class RetainedHeap {
+
+    private static final int[] SIZES = { 1_000, 10_000, 100_000 };
+    // Items built per measurement at least, and measurements per size (the median is shown).
+    private static final int MIN_ITEMS = 200_000;
+    private static final int RUNS = 5;
+    private static final Object SOURCE = new Object();
+
+    private RetainedHeap() {}
+
+    public static void main(String[] args) {
+        System.out.println("Retained heap in bytes per item (" + System.getProperty("java.vm.name")
+                + " " + System.getProperty("java.version") + ")");
+        System.out.printf(Locale.US, "%-44s%12s%12s%12s%n", "", "1k", "10k", "100k");
+        row("objects: sorted List<SimpleItem> + id map", items -> () -> {
+            List<SimpleItem> sorted = new ArrayList<>(items.size());
+            Map<String, SimpleItem> byId = new HashMap<>();
+            // Copies, so the strings are retained by the structure and not by the input.
+            for (SimpleItem it : items) {
+                SimpleItem copy = new SimpleItem(new String(it.id), new String(it.title), new String(it.subtitle));
+                sorted.add(copy);
+                byId.put(copy.id, copy);
+            }
+            sorted.sort(ItemOrder.BY_TITLE);
+            return new Object[] { sorted, byId };
+        });
+        row("objects + id map + prefix postings", items -> () -> {
+            List<SimpleItem> sorted = new ArrayList<>(items.size());
+            Map<String, SimpleItem> byId = new HashMap<>();
+            Map<String, List<SimpleItem>> postings = new HashMap<>();
+            for (SimpleItem it : items) {
+                SimpleItem copy = new SimpleItem(new String(it.id), new String(it.title), new String(it.subtitle));
+                sorted.add(copy);
+                byId.put(copy.id, copy);
+                // The keys ItemSearchIndex posts: each word's first two folded characters.
+                Set<String> prefixes = new HashSet<>();
+                for (String word : ItemSearchIndex.fold(it.title, it.subtitle).trim().split(" +")) {
+                    if (!word.isEmpty()) prefixes.add(word.substring(0, Math.min(2, word.length())));
+                }
+                for (String prefix : prefixes) {
+                    postings.computeIfAbsent(prefix, k -> new ArrayList<>()).add(copy);
+                }
+            }
+            sorted.sort(ItemOrder.BY_TITLE);
+            return new Object[] { sorted, byId, postings };
+        });
+        row("packed: ItemColumns + PackedItems", items -> () -> {
+            ItemColumns columns = new ItemColumns();
+            int[] slots = new int[items.size()];
+            for (int i = 0; i < slots.length; i++) slots[i] = columns.add(items.get(i), null);
+            // Slot order stands in for the sorted order; the retained size is the same.
+            return new PackedItems(columns.bytes, columns.starts, columns.flags, slots);
+        });
+        row("ItemList (ids, owners, search index)", items -> () -> {
+            ItemList list = new ItemList();
+            list.apply(SOURCE, items, Collections.emptyList());
+            return list;
+        });
+        row("ItemList, sorted for a locale", items -> () -> {
+            ItemList list = new ItemList();
+            list.setSortLocale(Locale.forLanguageTag("es-ES"));
+            list.apply(SOURCE, items, Collections.emptyList());
+            return list;
+        });
+    }
+
+    private interface Structure {
+        Supplier<Object> builder(List<SimpleItem> items);
+    }
+
+    private static void row(String name, Structure structure) {
+        System.out.printf(Locale.US, "%-44s", name);
+        for (int size : SIZES) {
+            List<SimpleItem> items = ItemListBenchmark.items(size);
+            Supplier<Object> build = structure.builder(items);
+            // Warm up class loading and lazily created JDK state (collators, regexes).
+            build.get();
+            // Small sizes are built several times over, so the total dwarfs heap noise.
+            int copies = Math.max(1, MIN_ITEMS / size);
+            long[] perItem = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                Object[] kept = new Object[copies];
+                long before = usedAfterGc();
+                for (int i = 0; i < copies; i++) kept[i] = build.get();
+                long after = usedAfterGc();
+                Reference.reachabilityFence(kept);
+                perItem[run] = (after - before) / ((long) copies * size);
+            }
+            Arrays.sort(perItem);
+            System.out.printf(Locale.US, "%12d", perItem[RUNS / 2]);
+        }
+        System.out.println();
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // Repeat until a collection frees nothing more (finalizers, soft references).
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used) break;
+            used = now;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints, for slot lists that would otherwise box every element.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(16);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void set(int index, int value) {
+        values[index] = value;
+    }
+
+    void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    void add(int index, int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /** A copy of the elements, exactly sized. */
+    @NonNull
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /** The backing array; only the first {@link #size()} entries are valid. */
+    @NonNull
+    int[] array() {
+        return values;
+    }
+}
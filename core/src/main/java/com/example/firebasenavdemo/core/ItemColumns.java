@@ -0,0 +1,389 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Packed, append-only storage for item text. Every stored item version gets an int slot;
+ * its id, title, subtitle and, if needed, folded search text live in one shared byte
+ * array, located by an offset array, and an optional collation key lives in a second
+ * byte array.
+ *
+ * <p>A slot whose text is all Latin-1 (which covers ids and most Western titles) takes
+ * one byte per character and is searched by folding its title and subtitle one character
+ * at a time, so it stores no folded text. Any other slot is stored as UTF-16, two bytes
+ * per character, together with its folded text. Compared with one {@link SimpleItem} and three
+ * {@link String}s per item, this saves the object headers, references and per-string
+ * fields, and leaves the garbage collector a handful of large arrays to trace instead
+ * of hundreds of thousands of small objects. Strings are only created when a caller
+ * asks for them.</p>
+ *
+ * <p>A slot's text is never overwritten; replacing an item appends a new slot and the
+ * old one becomes garbage until {@link #compact(int[], int)} copies the live slots into
+ * fresh arrays. A {@link PackedItems} snapshot can therefore keep reading the arrays it
+ * captured while this storage moves on. Not thread-safe otherwise.</p>
+ */
+final class ItemColumns {
+
+    // --- Fields of a slot ---
+    static final int ID = 0;
+    static final int TITLE = 1;
+    static final int SUBTITLE = 2;
+    static final int FOLDED = 3;
+    static final int FIELDS = 4;
+
+    // --- Slot flags: bit (1 << field) is set if the field is null ---
+    /** Flag: the slot's text is stored as UTF-16, two bytes per character. */
+    static final int WIDE = 1 << FIELDS;
+
+    byte[] bytes = new byte[2048];
+    int byteCount;
+    // starts[slot * FIELDS + field], in bytes; a field ends where the next one starts.
+    int[] starts = new int[FIELDS * 64 + 1];
+    byte[] flags = new byte[64];
+    int size;
+
+    // Collation keys: keyStarts[slot] .. keyStarts[slot + 1] in keys, empty if unset.
+    private byte[] keys = new byte[0];
+    private int[] keyStarts = new int[1];
+    private int keyCount;
+
+    /**
+     * Appends an item version.
+     * @param item The item; its id must not be null.
+     * @param key The title's collation key, or null if not sorting by one.
+     * @return The new slot.
+     */
+    int add(@NonNull SimpleItem item, @Nullable byte[] key) {
+        int slot = size;
+        ensureSlots(slot + 1);
+        boolean wide = !isLatin1(item.id) || !isLatin1(item.title) || !isLatin1(item.subtitle);
+        int base = slot * FIELDS;
+        int f = wide ? WIDE : 0;
+        f |= append(base + ID, ID, item.id, wide);
+        f |= append(base + TITLE, TITLE, item.title, wide);
+        f |= append(base + SUBTITLE, SUBTITLE, item.subtitle, wide);
+        String folded = wide ? ItemSearchIndex.fold(item.title, item.subtitle) : null;
+        f |= append(base + FOLDED, FOLDED, folded, wide);
+        starts[base + FIELDS] = byteCount;
+        flags[slot] = (byte) f;
+        size = slot + 1;
+        setKey(slot, key);
+        return slot;
+    }
+
+    /**
+     * Returns a field as a new string.
+     * @param slot The slot.
+     * @param field One of {@link #ID}, {@link #TITLE}, {@link #SUBTITLE}, {@link #FOLDED}.
+     * @return The text, or null if the field is null; {@link #FOLDED} is null unless the
+     *         slot is stored as UTF-16.
+     */
+    @Nullable
+    String get(int slot, int field) {
+        return get(bytes, starts, flags, slot, field);
+    }
+
+    /** Materializes a slot as a new {@link SimpleItem}. */
+    @NonNull
+    SimpleItem item(int slot) {
+        return new SimpleItem(get(slot, ID), get(slot, TITLE), get(slot, SUBTITLE));
+    }
+
+    /** Whether a field holds the same text in two slots. */
+    boolean fieldEquals(int a, int b, int field) {
+        boolean nullA = isNull(a, field);
+        if (nullA || isNull(b, field)) return nullA == isNull(b, field);
+        boolean wideA = isWide(a);
+        boolean wideB = isWide(b);
+        int fromA = starts[a * FIELDS + field];
+        int lenA = length(a, field);
+        int fromB = starts[b * FIELDS + field];
+        if (lenA != length(b, field)) return false;
+        for (int i = 0; i < lenA; i++) {
+            if (charAt(bytes, fromA, i, wideA) != charAt(bytes, fromB, i, wideB)) return false;
+        }
+        return true;
+    }
+
+    /** Whether a slot's id equals a string. */
+    boolean idEquals(int slot, @NonNull String id) {
+        return fieldEquals(slot, ID, id);
+    }
+
+    /** Whether a slot holds exactly an item's id, title and subtitle. */
+    boolean sameText(int slot, @NonNull SimpleItem item) {
+        return fieldEquals(slot, ID, item.id) && fieldEquals(slot, TITLE, item.title)
+                && fieldEquals(slot, SUBTITLE, item.subtitle);
+    }
+
+    /** Whether a field of a slot equals a (possibly null) string. */
+    boolean fieldEquals(int slot, int field, @Nullable String s) {
+        if (s == null || isNull(slot, field)) return s == null && isNull(slot, field);
+        boolean wide = isWide(slot);
+        int from = starts[slot * FIELDS + field];
+        int len = length(slot, field);
+        if (len != s.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (charAt(bytes, from, i, wide) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /** The hash of a slot's id; equal to {@link String#hashCode()} of the id. */
+    int idHash(int slot) {
+        boolean wide = isWide(slot);
+        int from = starts[slot * FIELDS + ID];
+        int len = length(slot, ID);
+        int h = 0;
+        for (int i = 0; i < len; i++) h = 31 * h + charAt(bytes, from, i, wide);
+        return h;
+    }
+
+    /**
+     * Compares a field of two slots by Unicode code point, like
+     * {@link ItemOrder#compareCodePoints(String, String)}. A null field sorts first.
+     */
+    int compareCodePoints(int a, int b, int field) {
+        boolean nullA = isNull(a, field);
+        boolean nullB = isNull(b, field);
+        if (nullA || nullB) return nullA == nullB ? 0 : (nullA ? -1 : 1);
+        boolean wideA = isWide(a);
+        boolean wideB = isWide(b);
+        int fromA = starts[a * FIELDS + field];
+        int lenA = length(a, field);
+        int fromB = starts[b * FIELDS + field];
+        int lenB = length(b, field);
+        int n = Math.min(lenA, lenB);
+        for (int i = 0; i < n; i++) {
+            char ca = charAt(bytes, fromA, i, wideA);
+            char cb = charAt(bytes, fromB, i, wideB);
+            if (ca != cb) return ItemOrder.fixUp(ca) - ItemOrder.fixUp(cb);
+        }
+        return lenA - lenB;
+    }
+
+    /** Compares the collation keys of two slots as unsigned bytes. */
+    int compareKeys(int a, int b) {
+        int fromA = keyStarts[a];
+        int lenA = keyStarts[a + 1] - fromA;
+        int fromB = keyStarts[b];
+        int lenB = keyStarts[b + 1] - fromB;
+        int n = Math.min(lenA, lenB);
+        for (int i = 0; i < n; i++) {
+            int c = (keys[fromA + i] & 0xff) - (keys[fromB + i] & 0xff);
+            if (c != 0) return c;
+        }
+        return lenA - lenB;
+    }
+
+    /**
+     * Returns a slot's folded search text, one word per run of letters and digits: the
+     * stored folded text, or the title and subtitle folded character by character.
+     */
+    @NonNull
+    String folded(int slot) {
+        if (isWide(slot)) return get(slot, FOLDED);
+        StringBuilder text = new StringBuilder(length(slot, TITLE) + length(slot, SUBTITLE) + 1);
+        appendFolded(slot, TITLE, text);
+        text.append(' ');
+        appendFolded(slot, SUBTITLE, text);
+        return text.toString();
+    }
+
+    /**
+     * Whether some word of a slot's folded text starts with a folded query word.
+     * @param word Letters and digits, folded like {@link ItemSearchIndex#normalize(String)}.
+     */
+    boolean containsWordPrefix(int slot, @NonNull String word) {
+        if (isWide(slot)) return containsWordPrefix(slot, FOLDED, word);
+        return containsWordPrefix(slot, TITLE, word) || containsWordPrefix(slot, SUBTITLE, word);
+    }
+
+    /**
+     * Drops all collation keys, e.g. before recomputing them for another locale.
+     */
+    void clearKeys() {
+        keys = new byte[0];
+        keyStarts = new int[starts.length / FIELDS + 1];
+        keyCount = 0;
+    }
+
+    /**
+     * Sets a slot's collation key. Keys are appended, so they must be set in slot order
+     * after {@link #clearKeys()}; {@link #add} keeps that order for new slots.
+     */
+    void setKey(int slot, @Nullable byte[] key) {
+        if (keyStarts.length < size + 1) keyStarts = Arrays.copyOf(keyStarts, starts.length / FIELDS + 1);
+        keyStarts[slot] = keyCount;
+        if (key != null) {
+            if (keyCount + key.length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keyCount + key.length, keys.length * 2));
+            }
+            System.arraycopy(key, 0, keys, keyCount, key.length);
+            keyCount += key.length;
+        }
+        keyStarts[slot + 1] = keyCount;
+    }
+
+    /**
+     * Copies the given slots, in order, into fresh arrays and drops everything else.
+     * @param live The slots to keep, in ascending order; slot live[i] becomes slot i.
+     * @param count The number of entries of live to use.
+     * @return The map from old to new slots, -1 for dropped slots.
+     */
+    @NonNull
+    int[] compact(@NonNull int[] live, int count) {
+        int[] map = new int[size];
+        Arrays.fill(map, -1);
+        int byteTotal = 0;
+        int keyBytes = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = live[i];
+            byteTotal += starts[slot * FIELDS + FIELDS] - starts[slot * FIELDS];
+            keyBytes += keyStarts[slot + 1] - keyStarts[slot];
+        }
+        byte[] newBytes = new byte[Math.max(2048, byteTotal + byteTotal / 2)];
+        int[] newStarts = new int[Math.max(64, count + count / 2) * FIELDS + 1];
+        byte[] newFlags = new byte[newStarts.length / FIELDS];
+        byte[] newKeys = new byte[keyBytes];
+        int[] newKeyStarts = new int[newFlags.length + 1];
+        int b = 0;
+        int k = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = live[i];
+            int from = starts[slot * FIELDS];
+            int shift = b - from;
+            for (int f = 0; f < FIELDS; f++) newStarts[i * FIELDS + f] = starts[slot * FIELDS + f] + shift;
+            int len = starts[slot * FIELDS + FIELDS] - from;
+            System.arraycopy(bytes, from, newBytes, b, len);
+            b += len;
+            newFlags[i] = flags[slot];
+            int keyLen = keyStarts[slot + 1] - keyStarts[slot];
+            System.arraycopy(keys, keyStarts[slot], newKeys, k, keyLen);
+            newKeyStarts[i] = k;
+            k += keyLen;
+            newKeyStarts[i + 1] = k;
+            map[slot] = i;
+        }
+        newStarts[count * FIELDS] = b;
+        bytes = newBytes;
+        starts = newStarts;
+        flags = newFlags;
+        keys = newKeys;
+        keyStarts = newKeyStarts;
+        byteCount = b;
+        keyCount = k;
+        size = count;
+        return map;
+    }
+
+    /** Reads a field from captured arrays; shared with {@link PackedItems}. */
+    @Nullable
+    static String get(@NonNull byte[] bytes, @NonNull int[] starts, @NonNull byte[] flags,
+                      int slot, int field) {
+        if ((flags[slot] & (1 << field)) != 0) return null;
+        int from = starts[slot * FIELDS + field];
+        int len = starts[slot * FIELDS + field + 1] - from;
+        return new String(bytes, from, len,
+                (flags[slot] & WIDE) != 0 ? StandardCharsets.UTF_16BE : StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Reads one character of a field from captured arrays.
+     * @param from The field's start offset.
+     * @param i The character index.
+     * @param wide Whether the slot is stored as UTF-16.
+     */
+    static char charAt(@NonNull byte[] bytes, int from, int i, boolean wide) {
+        if (!wide) return (char) (bytes[from + i] & 0xff);
+        int at = from + 2 * i;
+        return (char) (((bytes[at] & 0xff) << 8) | (bytes[at + 1] & 0xff));
+    }
+
+    private boolean isNull(int slot, int field) {
+        return (flags[slot] & (1 << field)) != 0;
+    }
+
+    private boolean isWide(int slot) {
+        return (flags[slot] & WIDE) != 0;
+    }
+
+    // The length of a non-null field in characters.
+    private int length(int slot, int field) {
+        int len = starts[slot * FIELDS + field + 1] - starts[slot * FIELDS + field];
+        return isWide(slot) ? len >> 1 : len;
+    }
+
+    private static boolean isLatin1(@Nullable String s) {
+        if (s == null) return true;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xff) return false;
+        }
+        return true;
+    }
+
+    // Appends a Latin-1 field, folded, to a builder.
+    private void appendFolded(int slot, int field, @NonNull StringBuilder out) {
+        if (isNull(slot, field)) return;
+        int from = starts[slot * FIELDS + field];
+        int len = length(slot, field);
+        for (int i = 0; i < len; i++) out.append(ItemSearchIndex.foldLatin1(charAt(bytes, from, i, false)));
+    }
+
+    // Looks for a word start in one field; Latin-1 text is folded as it is read, folded
+    // text is compared as stored. Folding keeps a character a letter or digit or not.
+    private boolean containsWordPrefix(int slot, int field, @NonNull String word) {
+        if (isNull(slot, field)) return false;
+        boolean wide = isWide(slot);
+        int from = starts[slot * FIELDS + field];
+        int last = length(slot, field) - word.length();
+        boolean wordStart = true;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            char c = charAt(bytes, from, i, wide);
+            boolean start = wordStart;
+            wordStart = !Character.isLetterOrDigit(c);
+            if (!start) continue;
+            for (int j = 0; j < word.length(); j++) {
+                char d = charAt(bytes, from, i + j, wide);
+                if ((wide ? d : ItemSearchIndex.foldLatin1(d)) != word.charAt(j)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Appends a field's text and records its start; returns its null flag.
+    private int append(int index, int field, @Nullable String s, boolean wide) {
+        starts[index] = byteCount;
+        if (s == null) return 1 << field;
+        int len = s.length();
+        int need = wide ? 2 * len : len;
+        if (byteCount + need > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(byteCount + need, bytes.length * 2));
+        }
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (wide) {
+                bytes[byteCount++] = (byte) (c >>> 8);
+                bytes[byteCount++] = (byte) c;
+            } else {
+                bytes[byteCount++] = (byte) c;
+            }
+        }
+        return 0;
+    }
+
+    private void ensureSlots(int count) {
+        if (count * FIELDS + 1 <= starts.length) return;
+        int capacity = Math.max(count, (starts.length / FIELDS) * 2);
+        starts = Arrays.copyOf(starts, capacity * FIELDS + 1);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+}
@@ -0,0 +1,636 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The list processing behind the items screen, free of Android and Firebase types.
+ *
+ * <p>Decoded snapshot changes are applied by document id to a list kept sorted like
+ * {@link ItemOrder#BY_TITLE}, or, once a sort locale is set, by a collation key computed
+ * once per item. Small changes are inserted at their sorted positions; large batches
+ * (such as a first snapshot) are merged with a single sort. Every document is owned by
+ * the source (listener or page) that delivered it last, so a document moving between
+ * sources is not removed twice; an item delivered again with the same text only changes
+ * owner and produces no update. A search index is kept in step with every change, and a
+ * search query filters the displayed list without rescanning all items. Items can also
+ * be hidden by id, e.g. while their deletion is pending, without dropping them. Each
+ * call that changes the displayed list returns an {@link ItemsUpdate} against the
+ * previously returned list.</p>
+ *
+ * <p>Items are not kept as objects: their text lives in packed {@link ItemColumns} and
+ * every list here is a list of int slots. The published lists are {@link PackedItems}
+ * views over the same arrays, which create item objects only for the rows read.</p>
+ *
+ * <p>Not thread-safe; the app confines an instance to its pipeline's executor.</p>
+ */
+public final class ItemList {
+
+    // Batches with more upserts than this are merged by one sort instead of one insert each.
+    private static final int BULK_THRESHOLD = 256;
+    // Replaced and removed items are compacted away once they outnumber the live ones
+    // and there are at least this many of them.
+    private static final int COMPACT_MIN_GARBAGE = 4096;
+
+    @Nullable private Locale sortLocale;
+    @Nullable private Collator collator;
+
+    // --- Storage: one slot per item version ---
+    private final ItemColumns columns = new ItemColumns();
+    private final IdTable ids = new IdTable(columns); // document id -> current slot
+    // Which source owns each current slot (null once replaced or removed), and how many
+    // slots each source owns.
+    private Object[] owners = new Object[64];
+    private final Map<Object, Integer> counts = new HashMap<>();
+
+    // --- Lists: current slots sorted by compare() ---
+    private final IntList working = new IntList();
+    // The displayed subset of working: everything, or only the items matching the query.
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex(columns);
+    private ItemSearchIndex.Query query;
+    private final Set<String> hidden = new HashSet<>();
+    private final BitSet hiddenSlots = new BitSet();
+    private IntList display = new IntList();
+    private PackedItems published = PackedItems.EMPTY;
+
+    /**
+     * Applies changes on behalf of a source. Removals only count if the source still
+     * owns the document. Items without an id cannot be tracked and are ignored.
+     * @param source The source of the changes.
+     * @param upserts Added or modified items.
+     * @param removals Ids of removed documents.
+     * @return The resulting update, or null if the displayed list did not change.
+     */
+    @Nullable
+    public ItemsUpdate apply(@NonNull Object source, @NonNull List<SimpleItem> upserts,
+                             @NonNull List<String> removals) {
+        if (upserts.size() > BULK_THRESHOLD) {
+            return applyBulk(source, upserts, removals);
+        }
+        ItemsUpdate.Recorder recorder = new ItemsUpdate.Recorder();
+        for (String id : removals) {
+            int slot = ids.find(id);
+            if (slot >= 0 && owners[slot] == source) {
+                remove(slot, recorder);
+            }
+        }
+        for (SimpleItem item : upserts) {
+            if (item.id != null) upsert(item, source, recorder);
+        }
+        return publishIfChanged(recorder);
+    }
+
+    /**
+     * Drops every item owned by a source, e.g. a page that scrolled far off-screen.
+     * @param source The source whose items are removed.
+     * @param evictedIds Receives the ids of the removed items.
+     * @return The resulting update, or null if the displayed list did not change.
+     */
+    @Nullable
+    public ItemsUpdate evict(@NonNull Object source, @NonNull List<String> evictedIds) {
+        // Removing in list order lets the recorder fold them into range removals.
+        IntList evicted = new IntList();
+        for (int i = 0; i < working.size(); i++) {
+            if (owners[working.get(i)] == source) evicted.add(working.get(i));
+        }
+        ItemsUpdate.Recorder recorder = new ItemsUpdate.Recorder();
+        for (int i = 0; i < evicted.size(); i++) {
+            int slot = evicted.get(i);
+            evictedIds.add(columns.get(slot, ItemColumns.ID));
+            remove(slot, recorder);
+        }
+        return publishIfChanged(recorder);
+    }
+
+    /**
+     * Filters the displayed list to items matching a search query.
+     * @param next The parsed query, or null to show every item.
+     * @return The resulting update, or null if the displayed list did not change.
+     */
+    @Nullable
+    public ItemsUpdate setQuery(@Nullable ItemSearchIndex.Query next) {
+        if (ItemSearchIndex.Query.same(query, next)) return null;
+        query = next;
+        IntList filtered = filter(working);
+        ItemsUpdate.Recorder recorder = new ItemsUpdate.Recorder();
+        diffSorted(display, filtered, recorder);
+        display = filtered;
+        return publishIfChanged(recorder);
+    }
+
+    /**
+     * Switches between code point order (null, matching the server's order) and the
+     * order of a locale. Changing the locale recomputes every item's collation key and
+     * re-sorts once; setting the same locale again does nothing.
+     * @param locale The locale to sort for, or null for the server's order.
+     * @return A full-replacement update, or null if the order did not change.
+     */
+    @Nullable
+    public ItemsUpdate setSortLocale(@Nullable Locale locale) {
+        if (Objects.equals(locale, sortLocale)) return null;
+        sortLocale = locale;
+        if (locale == null) {
+            collator = null;
+        } else {
+            collator = Collator.getInstance(locale);
+            collator.setStrength(Collator.TERTIARY);
+            collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        }
+        // Keys are appended in slot order.
+        columns.clearKeys();
+        int[] current = working.toArray();
+        Arrays.sort(current);
+        for (int slot : current) {
+            columns.setKey(slot, keyFor(columns.get(slot, ItemColumns.TITLE)));
+        }
+        sort(working);
+        display = filter(working);
+        published = snapshot();
+        return ItemsUpdate.reset(published);
+    }
+
+    /**
+     * Hides items from the displayed list while keeping them loaded, e.g. while their
+     * deletion is pending. Hidden ids that are not loaded yet stay hidden when they arrive.
+     * @param ids The ids of the items to hide.
+     * @return The resulting update, or null if the displayed list did not change.
+     */
+    @Nullable
+    public ItemsUpdate hide(@NonNull Collection<String> ids) {
+        ItemsUpdate.Recorder recorder = new ItemsUpdate.Recorder();
+        for (String id : ids) {
+            int slot = this.ids.find(id);
+            if (!hidden.add(id) || slot < 0) continue;
+            hiddenSlots.set(slot);
+            int from = search(display, slot);
+            if (from >= 0) {
+                display.removeAt(from);
+                recorder.onRemoved(from, 1);
+            }
+        }
+        return publishIfChanged(recorder);
+    }
+
+    /**
+     * Shows hidden items again, if they are still loaded and match the query.
+     * @param ids The ids of the items to show.
+     * @return The resulting update, or null if the displayed list did not change.
+     */
+    @Nullable
+    public ItemsUpdate unhide(@NonNull Collection<String> ids) {
+        ItemsUpdate.Recorder recorder = new ItemsUpdate.Recorder();
+        for (String id : ids) {
+            int slot = this.ids.find(id);
+            if (!hidden.remove(id) || slot < 0) continue;
+            hiddenSlots.clear(slot);
+            if (!isShown(slot)) continue;
+            int to = insertionPoint(display, slot);
+            display.add(to, slot);
+            recorder.onInserted(to, 1);
+        }
+        return publishIfChanged(recorder);
+    }
+
+    /** Returns how many loaded items a source currently owns, whether displayed or not. */
+    public int countOf(@NonNull Object source) {
+        Integer n = counts.get(source);
+        return n == null ? 0 : n;
+    }
+
+    /** The number of loaded items, displayed or not. */
+    public int size() {
+        return working.size();
+    }
+
+    /** The number of displayed items: those matching the query and not hidden. */
+    public int displayedSize() {
+        return display.size();
+    }
+
+    /**
+     * Returns the source that owns an item of the displayed list, e.g. to find out which
+     * page a visible row came from.
+     * @param position A position in the displayed list.
+     * @return The owner, or null if the position is out of range.
+     */
+    @Nullable
+    public Object ownerAt(int position) {
+        return (position >= 0 && position < display.size()) ? owners[display.get(position)] : null;
+    }
+
+    /**
+     * Computes which visible fields differ between two versions of the same item.
+     * @param old The previously displayed version of the item.
+     * @param now The new version of the item.
+     * @return A combination of ItemsUpdate.PAYLOAD_* flags, or 0 if nothing visible changed.
+     */
+    public static int changePayload(@NonNull SimpleItem old, @NonNull SimpleItem now) {
+        int flags = 0;
+        if (!Objects.equals(old.title, now.title)) flags |= ItemsUpdate.PAYLOAD_TITLE;
+        if (!Objects.equals(old.subtitle, now.subtitle)) flags |= ItemsUpdate.PAYLOAD_SUBTITLE;
+        return flags;
+    }
+
+    /** A copy of the sorted slots of all loaded items, e.g. for benchmarking the diff. */
+    @NonNull
+    IntList slots() {
+        IntList copy = new IntList(working.size());
+        for (int i = 0; i < working.size(); i++) copy.add(working.get(i));
+        return copy;
+    }
+
+    /**
+     * Records the operations turning one sorted slot list into another in one pass:
+     * removals, insertions, and changes where an item kept its position but a visible
+     * field differs.
+     */
+    void diffSorted(@NonNull IntList from, @NonNull IntList to, @NonNull ItemsUpdate.Callback recorder) {
+        int i = 0;
+        int j = 0;
+        int pos = 0;
+        while (i < from.size() || j < to.size()) {
+            int c;
+            if (i == from.size()) c = 1;
+            else if (j == to.size()) c = -1;
+            else c = compare(from.get(i), to.get(j));
+            if (c < 0) {
+                recorder.onRemoved(pos, 1);
+                i++;
+            } else if (c > 0) {
+                recorder.onInserted(pos++, 1);
+                j++;
+            } else {
+                int old = from.get(i++);
+                int now = to.get(j++);
+                int payload = (old == now) ? 0 : changePayload(old, now);
+                if (payload != 0) recorder.onChanged(pos, 1, payload);
+                pos++;
+            }
+        }
+    }
+
+    // Applies a large batch: storage and index first, then one merge and one diff of the display.
+    @Nullable
+    private ItemsUpdate applyBulk(@NonNull Object source, @NonNull List<SimpleItem> upserts,
+                                  @NonNull List<String> removals) {
+        for (String id : removals) {
+            int slot = ids.find(id);
+            if (slot >= 0 && owners[slot] == source) {
+                ids.remove(slot);
+                release(slot);
+            }
+        }
+        IntList added = new IntList(upserts.size());
+        for (SimpleItem item : upserts) {
+            if (item.id == null) continue;
+            int old = ids.find(item.id);
+            if (old >= 0 && adopt(old, item, source)) continue;
+            int slot = store(item, source);
+            if (old >= 0) {
+                ids.replace(old, slot);
+                release(old);
+            } else {
+                ids.put(slot);
+            }
+            added.add(slot);
+        }
+        // Current slots keep an owner; merge the sorted survivors with the sorted new ones.
+        IntList kept = new IntList(working.size());
+        for (int i = 0; i < working.size(); i++) {
+            if (owners[working.get(i)] != null) kept.add(working.get(i));
+        }
+        IntList fresh = new IntList(added.size());
+        for (int i = 0; i < added.size(); i++) {
+            if (owners[added.get(i)] != null) fresh.add(added.get(i));
+        }
+        sort(fresh);
+        merge(kept, fresh, working);
+
+        IntList filtered = filter(working);
+        ItemsUpdate.Recorder recorder = new ItemsUpdate.Recorder();
+        diffSorted(display, filtered, recorder);
+        display = filtered;
+        return publishIfChanged(recorder);
+    }
+
+    @Nullable
+    private ItemsUpdate publishIfChanged(@NonNull ItemsUpdate.Recorder recorder) {
+        compactIfNeeded();
+        if (recorder.isEmpty()) return null;
+        PackedItems next = snapshot();
+        ItemsUpdate update = recorder.build(published, next);
+        published = next;
+        return update;
+    }
+
+    @NonNull
+    private PackedItems snapshot() {
+        return new PackedItems(columns.bytes, columns.starts, columns.flags, display.toArray());
+    }
+
+    // Inserts a new item at its sorted position, or replaces (and possibly moves) an existing one.
+    private void upsert(@NonNull SimpleItem item, @NonNull Object source,
+                        @NonNull ItemsUpdate.Recorder recorder) {
+        int old = ids.find(item.id);
+        if (old >= 0 && adopt(old, item, source)) return;
+        int slot = store(item, source);
+        if (old >= 0) {
+            working.removeAt(search(working, old));
+            ids.replace(old, slot);
+        } else {
+            ids.put(slot);
+        }
+        working.add(insertionPoint(working, slot), slot);
+        updateDisplay(old, slot, recorder);
+        if (old >= 0) release(old);
+    }
+
+    private void remove(int slot, @NonNull ItemsUpdate.Recorder recorder) {
+        ids.remove(slot);
+        working.removeAt(search(working, slot));
+        updateDisplay(slot, -1, recorder);
+        release(slot);
+    }
+
+    // Appends and indexes a new item version owned by a source.
+    private int store(@NonNull SimpleItem item, @NonNull Object source) {
+        int slot = columns.add(item, keyFor(item.title));
+        if (slot >= owners.length) owners = Arrays.copyOf(owners, Math.max(slot + 1, owners.length * 2));
+        owners[slot] = source;
+        counts.put(source, countOf(source) + 1);
+        if (!hidden.isEmpty() && hidden.contains(item.id)) hiddenSlots.set(slot);
+        searchIndex.add(slot);
+        return slot;
+    }
+
+    // Keeps the current version of an item if its text did not change (e.g. a listener
+    // delivering it again after a reattach), moving it to the new source if needed.
+    private boolean adopt(int slot, @NonNull SimpleItem item, @NonNull Object source) {
+        if (!columns.sameText(slot, item)) return false;
+        Object owner = owners[slot];
+        if (owner != source) {
+            int n = countOf(owner) - 1;
+            if (n == 0) counts.remove(owner); else counts.put(owner, n);
+            owners[slot] = source;
+            counts.put(source, countOf(source) + 1);
+        }
+        return true;
+    }
+
+    // Turns a slot that was replaced or removed into garbage. Its text stays readable
+    // until the next compaction.
+    private void release(int slot) {
+        Object owner = owners[slot];
+        if (owner == null) return;
+        int n = countOf(owner) - 1;
+        if (n == 0) counts.remove(owner); else counts.put(owner, n);
+        owners[slot] = null;
+        hiddenSlots.clear(slot);
+        searchIndex.remove(slot);
+    }
+
+    // Replaces old with now in the displayed list (either may be -1), recording the operations.
+    private void updateDisplay(int old, int now, @NonNull ItemsUpdate.Recorder recorder) {
+        int from = (old < 0) ? -1 : search(display, old);
+        boolean show = now >= 0 && isShown(now);
+        if (from >= 0) display.removeAt(from);
+        int to = -1;
+        if (show) {
+            to = insertionPoint(display, now);
+            display.add(to, now);
+        }
+        if (from >= 0 && show) {
+            if (from != to) {
+                recorder.onMoved(from, to);
+            }
+            // Skip the rebind entirely if no visible field changed.
+            int payload = changePayload(old, now);
+            if (payload != 0) {
+                recorder.onChanged(to, 1, payload);
+            }
+        } else if (from >= 0) {
+            recorder.onRemoved(from, 1);
+        } else if (show) {
+            recorder.onInserted(to, 1);
+        }
+    }
+
+    // The slots of a sorted list that match the current query and are not hidden.
+    @NonNull
+    private IntList filter(@NonNull IntList sorted) {
+        BitSet hits = (query == null) ? null : searchIndex.search(query);
+        IntList filtered = new IntList(hits == null ? sorted.size() : hits.cardinality());
+        for (int i = 0; i < sorted.size(); i++) {
+            int slot = sorted.get(i);
+            if ((hits == null || hits.get(slot)) && !hiddenSlots.get(slot)) filtered.add(slot);
+        }
+        return filtered;
+    }
+
+    // Whether a slot belongs in the displayed list: matching the query and not hidden.
+    private boolean isShown(int slot) {
+        return (query == null || searchIndex.matches(query, slot)) && !hiddenSlots.get(slot);
+    }
+
+    private int changePayload(int old, int now) {
+        int flags = 0;
+        if (!columns.fieldEquals(old, now, ItemColumns.TITLE)) flags |= ItemsUpdate.PAYLOAD_TITLE;
+        if (!columns.fieldEquals(old, now, ItemColumns.SUBTITLE)) flags |= ItemsUpdate.PAYLOAD_SUBTITLE;
+        return flags;
+    }
+
+    @Nullable
+    private byte[] keyFor(@Nullable String title) {
+        return (collator == null) ? null : collator.getCollationKey(title == null ? "" : title).toByteArray();
+    }
+
+    // The list order: by collation key or by title code points, ties broken by document id.
+    private int compare(int a, int b) {
+        int c = (collator != null) ? columns.compareKeys(a, b)
+                : columns.compareCodePoints(a, b, ItemColumns.TITLE);
+        return c != 0 ? c : columns.compareCodePoints(a, b, ItemColumns.ID);
+    }
+
+    // The position of a slot in a sorted list, or (-(insertion point) - 1).
+    private int search(@NonNull IntList list, int slot) {
+        int lo = 0;
+        int hi = list.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(list.get(mid), slot);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private int insertionPoint(@NonNull IntList list, int slot) {
+        int i = search(list, slot);
+        return i < 0 ? -(i + 1) : i;
+    }
+
+    /** Sorts a slot list in the list's order with a bottom-up merge sort; package-private for benchmarking. */
+    void sort(@NonNull IntList list) {
+        int n = list.size();
+        int[] a = list.array();
+        int[] tmp = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                if (compare(a[mid - 1], a[mid]) <= 0) continue; // Already in order.
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) tmp[k++] = compare(a[i], a[j]) <= 0 ? a[i++] : a[j++];
+                while (i < mid) tmp[k++] = a[i++];
+                while (j < hi) tmp[k++] = a[j++];
+                System.arraycopy(tmp, lo, a, lo, hi - lo);
+            }
+        }
+    }
+
+    // Merges two sorted slot lists into out.
+    private void merge(@NonNull IntList a, @NonNull IntList b, @NonNull IntList out) {
+        out.clear();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            out.add(compare(a.get(i), b.get(j)) <= 0 ? a.get(i++) : b.get(j++));
+        }
+        while (i < a.size()) out.add(a.get(i++));
+        while (j < b.size()) out.add(b.get(j++));
+    }
+
+    // Copies the current slots into fresh storage once most of it is garbage. Published
+    // lists keep the arrays they were created with.
+    private void compactIfNeeded() {
+        int live = working.size();
+        int garbage = columns.size - live;
+        if (garbage < COMPACT_MIN_GARBAGE || garbage <= live) return;
+        int[] slots = working.toArray();
+        Arrays.sort(slots);
+        int[] map = columns.compact(slots, slots.length);
+
+        Object[] newOwners = new Object[Math.max(64, columns.starts.length / ItemColumns.FIELDS)];
+        BitSet newHidden = new BitSet();
+        for (int slot : slots) {
+            newOwners[map[slot]] = owners[slot];
+            if (hiddenSlots.get(slot)) newHidden.set(map[slot]);
+        }
+        owners = newOwners;
+        hiddenSlots.clear();
+        hiddenSlots.or(newHidden);
+        for (int i = 0; i < working.size(); i++) working.set(i, map[working.get(i)]);
+        for (int i = 0; i < display.size(); i++) display.set(i, map[display.get(i)]);
+        searchIndex.remap(map);
+        ids.rebuild(working);
+    }
+
+    /**
+     * An open-addressing hash table from document id to slot that reads the ids from the
+     * columns, so it holds no strings. Linear probing; removals shift entries back.
+     */
+    private static final class IdTable {
+        private final ItemColumns columns;
+        private int[] table = new int[64]; // slot + 1; 0 is empty
+        private int size;
+
+        IdTable(@NonNull ItemColumns columns) {
+            this.columns = columns;
+        }
+
+        // The current slot of an id, or -1.
+        int find(@NonNull String id) {
+            int mask = table.length - 1;
+            for (int i = mix(id.hashCode()) & mask; table[i] != 0; i = (i + 1) & mask) {
+                if (columns.idEquals(table[i] - 1, id)) return table[i] - 1;
+            }
+            return -1;
+        }
+
+        // Adds a slot whose id is not in the table yet.
+        void put(int slot) {
+            if ((size + 1) * 2 > table.length) resize(table.length * 2);
+            insert(slot);
+            size++;
+        }
+
+        // Points an id at a new slot with the same id.
+        void replace(int old, int slot) {
+            table[indexOf(old)] = slot + 1;
+        }
+
+        void remove(int slot) {
+            int mask = table.length - 1;
+            int hole = indexOf(slot);
+            table[hole] = 0;
+            size--;
+            // Move back entries whose probe sequence passed through the hole.
+            for (int j = (hole + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = home(table[j] - 1);
+                boolean reachable = (hole <= j) ? (hole < home && home <= j) : (hole < home || home <= j);
+                if (!reachable) {
+                    table[hole] = table[j];
+                    table[j] = 0;
+                    hole = j;
+                }
+            }
+        }
+
+        // Refills the table from the given slots, e.g. after compaction.
+        void rebuild(@NonNull IntList slots) {
+            int capacity = 64;
+            while (capacity < slots.size() * 2) capacity *= 2;
+            table = new int[capacity];
+            for (int i = 0; i < slots.size(); i++) insert(slots.get(i));
+            size = slots.size();
+        }
+
+        private void resize(int capacity) {
+            int[] old = table;
+            table = new int[capacity];
+            for (int entry : old) {
+                if (entry != 0) insert(entry - 1);
+            }
+        }
+
+        private void insert(int slot) {
+            int mask = table.length - 1;
+            int i = home(slot);
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = slot + 1;
+        }
+
+        private int indexOf(int slot) {
+            int mask = table.length - 1;
+            int i = home(slot);
+            while (table[i] != slot + 1) i = (i + 1) & mask;
+            return i;
+        }
+
+        private int home(int slot) {
+            return mix(columns.idHash(slot)) & (table.length - 1);
+        }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.util.Comparator;
+
+/**
+ * Client-side orderings for {@link SimpleItem} lists.
+ */
+public final class ItemOrder {
+
+    /**
+     * Orders items the way Firestore orders {@code orderBy("title")}: by title in Unicode
+     * code point order (which equals UTF-8 byte order), ties broken by document id.
+     */
+    public static final Comparator<SimpleItem> BY_TITLE = (a, b) -> {
+        int c = compareCodePoints(a.title, b.title);
+        return c != 0 ? c : compareCodePoints(a.id, b.id);
+    };
+
+    private ItemOrder() {}
+
+    /**
+     * Compares two strings by Unicode code point rather than by UTF-16 unit, so that
+     * supplementary characters sort after U+E000..U+FFFF as they do on the server.
+     * A null string sorts first.
+     */
+    static int compareCodePoints(@Nullable String a, @Nullable String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                return fixUp(ca) - fixUp(cb);
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    // Shifts surrogates above the rest of the BMP so char order matches code point order.
+    static int fixUp(char c) {
+        if (c >= 0xE000) return c - 0x800;
+        if (c >= 0xD800) return c + 0x2000;
+        return c;
+    }
+}
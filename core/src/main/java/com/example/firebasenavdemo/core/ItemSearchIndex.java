@@ -0,0 +1,345 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory, incrementally updated search index over item titles and subtitles.
+ *
+ * <p>Text is folded to lower case without diacritics ("Niño" matches "nino"), split into
+ * words, and every word's first {@value #PREFIX_LENGTH} characters are posted to a sorted
+ * int list of item slots. A query matches an item when each query word is a prefix of
+ * some word of the item. Lookup takes the shortest posting list among the query words
+ * (for a one-character word, the union of the lists it starts) and verifies only those
+ * candidates against the {@link ItemColumns}, so its cost depends on the number of
+ * candidates rather than on the total number of items.</p>
+ *
+ * <p>Prefixes are packed into ints and kept in an open-addressing table next to their
+ * posting arrays, so an entry costs one int array and no key or node objects. Two
+ * characters keep the number of distinct prefixes small (a few thousand at most for a
+ * Latin alphabet and digits) while narrowing the candidates for longer words well enough
+ * that verifying them is cheap. A prefix whose list becomes empty keeps its table entry
+ * but drops its array.</p>
+ *
+ * <p>Not thread-safe; an {@link ItemList} uses it from its owner's thread only.</p>
+ */
+public final class ItemSearchIndex {
+
+    // Characters of a word that form its posting key; longer query words are verified.
+    private static final int PREFIX_LENGTH = 2;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int[] NO_SLOTS = new int[0];
+    // The folded form of every Latin-1 character, which is always a single Latin-1 character.
+    private static final char[] LATIN1_FOLDED = new char[256];
+
+    static {
+        for (char c = 0; c < LATIN1_FOLDED.length; c++) {
+            LATIN1_FOLDED[c] = normalize(String.valueOf(c)).charAt(0);
+        }
+    }
+
+    /**
+     * A parsed, normalized query.
+     */
+    public static final class Query {
+        final String[] words;
+
+        private Query(String[] words) {
+            this.words = words;
+        }
+
+        /** Whether two (possibly null) queries match the same items. */
+        public static boolean same(@Nullable Query a, @Nullable Query b) {
+            if (a == null || b == null) return a == b;
+            return Arrays.equals(a.words, b.words);
+        }
+    }
+
+    // The indexed text of every slot; slots are assigned by the columns.
+    private final ItemColumns columns;
+
+    // --- Postings: packed prefix -> sorted slots, by open addressing; key 0 is free ---
+    private int[] keys = new int[64];
+    private int[][] lists = new int[64][];
+    private int[] sizes = new int[64];
+    private int keyCount;
+
+    /**
+     * @param columns The storage the indexed slots live in.
+     */
+    ItemSearchIndex(@NonNull ItemColumns columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Parses a query string.
+     * @param text The raw user input.
+     * @return The parsed query, or null if it contains no words (everything matches).
+     */
+    @Nullable
+    public static Query parse(@Nullable String text) {
+        if (text == null) return null;
+        List<String> words = words(normalize(text));
+        return words.isEmpty() ? null : new Query(words.toArray(new String[0]));
+    }
+
+    /**
+     * Builds the folded text stored for an item: " title words subtitle words ". It is
+     * rebuilt from the words, so every word (also one after punctuation, as in "e-mail")
+     * follows a space. Only needed for text outside Latin-1; Latin-1 text is folded one
+     * character at a time by {@link #foldLatin1(char)}.
+     */
+    @NonNull
+    static String fold(@Nullable String title, @Nullable String subtitle) {
+        return " " + String.join(" ", words(normalize(title)))
+                + " " + String.join(" ", words(normalize(subtitle))) + " ";
+    }
+
+    /**
+     * Folds a Latin-1 character like {@link #normalize(String)} folds text containing it.
+     * @param c A character up to U+00FF.
+     */
+    static char foldLatin1(char c) {
+        return LATIN1_FOLDED[c];
+    }
+
+    /**
+     * Indexes a slot by its folded text.
+     * @param slot A slot of the columns.
+     */
+    void add(int slot) {
+        IntList codes = prefixes(columns.folded(slot));
+        for (int i = 0; i < codes.size(); i++) {
+            int entry = entry(codes.get(i));
+            int[] list = lists[entry];
+            int size = sizes[entry];
+            int at = Arrays.binarySearch(list, 0, size, slot);
+            if (at >= 0) continue;
+            at = -(at + 1);
+            if (size == list.length) lists[entry] = list = Arrays.copyOf(list, size + (size >> 1) + 1);
+            System.arraycopy(list, at, list, at + 1, size - at);
+            list[at] = slot;
+            sizes[entry] = size + 1;
+        }
+    }
+
+    /**
+     * Removes a slot from the index. Its text must still be in the columns.
+     * @param slot A slot previously added.
+     */
+    void remove(int slot) {
+        IntList codes = prefixes(columns.folded(slot));
+        for (int i = 0; i < codes.size(); i++) {
+            int entry = find(codes.get(i));
+            if (entry < 0) continue;
+            int[] list = lists[entry];
+            int size = sizes[entry];
+            int at = Arrays.binarySearch(list, 0, size, slot);
+            if (at < 0) continue;
+            System.arraycopy(list, at + 1, list, at, size - at - 1);
+            sizes[entry] = --size;
+            if (size == 0) lists[entry] = NO_SLOTS;
+        }
+    }
+
+    /**
+     * Renumbers all slots after the columns were compacted.
+     * @param map The map from old to new slots; it must preserve slot order.
+     */
+    void remap(@NonNull int[] map) {
+        for (int entry = 0; entry < keys.length; entry++) {
+            int[] list = lists[entry];
+            for (int i = 0; i < sizes[entry]; i++) list[i] = map[list[i]];
+        }
+    }
+
+    /**
+     * Returns the slots of all items matching a query.
+     * @param query A parsed query.
+     * @return A set of slots.
+     */
+    @NonNull
+    BitSet search(@NonNull Query query) {
+        // Start from the query word with the fewest candidates.
+        String best = null;
+        long fewest = Long.MAX_VALUE;
+        for (String word : query.words) {
+            long count = candidates(word);
+            if (count == 0) return new BitSet();
+            if (count < fewest) {
+                best = word;
+                fewest = count;
+            }
+        }
+        BitSet result = new BitSet(columns.size);
+        int code = code(best);
+        int mask = mask(best);
+        if (mask == -1) {
+            verify(query, find(code), result);
+        } else {
+            for (int entry = 0; entry < keys.length; entry++) {
+                if (keys[entry] != 0 && (keys[entry] & mask) == code) verify(query, entry, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tests a single slot against a query without a full search.
+     * @param query A parsed query.
+     * @param slot An indexed slot.
+     */
+    boolean matches(@NonNull Query query, int slot) {
+        // Each query word must start some word of the text.
+        for (String word : query.words) {
+            if (!columns.containsWordPrefix(slot, word)) return false;
+        }
+        return true;
+    }
+
+    // Adds the slots of a posting list that match a query; a slot may be in several lists.
+    private void verify(@NonNull Query query, int entry, @NonNull BitSet result) {
+        int[] list = lists[entry];
+        for (int i = 0; i < sizes[entry]; i++) {
+            int slot = list[i];
+            if (!result.get(slot) && matches(query, slot)) result.set(slot);
+        }
+    }
+
+    // The number of slots posted under the prefixes a query word can match.
+    private long candidates(@NonNull String word) {
+        int code = code(word);
+        if (word.length() >= PREFIX_LENGTH) {
+            int entry = find(code);
+            return entry < 0 ? 0 : sizes[entry];
+        }
+        int mask = mask(word);
+        long count = 0;
+        for (int entry = 0; entry < keys.length; entry++) {
+            if (keys[entry] != 0 && (keys[entry] & mask) == code) count += sizes[entry];
+        }
+        return count;
+    }
+
+    /**
+     * Folds text for matching: decomposes accented characters, drops the combining marks
+     * and lower-cases the rest, so "Canción" and "cancion" compare equal.
+     */
+    @NonNull
+    static String normalize(@Nullable String s) {
+        if (s == null || s.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Splits normalized text into words of letters and digits.
+    @NonNull
+    private static List<String> words(@NonNull String s) {
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean inWord = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                out.add(s.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // The packed posting keys of the distinct word prefixes in folded text.
+    @NonNull
+    private static IntList prefixes(@NonNull CharSequence text) {
+        IntList out = new IntList();
+        boolean wordStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            boolean letter = Character.isLetterOrDigit(text.charAt(i));
+            if (letter && wordStart) {
+                int end = i + 1;
+                while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) end++;
+                int code = code(text, i, end);
+                if (!contains(out, code)) out.add(code);
+            }
+            wordStart = !letter;
+        }
+        return out;
+    }
+
+    private static boolean contains(@NonNull IntList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) return true;
+        }
+        return false;
+    }
+
+    // Packs the first PREFIX_LENGTH characters of a word into an int; never 0.
+    private static int code(@NonNull CharSequence word, int start, int end) {
+        int second = end - start > 1 ? word.charAt(start + 1) : 0;
+        return word.charAt(start) << 16 | second;
+    }
+
+    private static int code(@NonNull String word) {
+        return code(word, 0, word.length());
+    }
+
+    // The key bits a query word fixes: both characters, or only the first.
+    private static int mask(@NonNull String word) {
+        return word.length() >= PREFIX_LENGTH ? -1 : 0xffff0000;
+    }
+
+    // The table entry of a prefix, or -1.
+    private int find(int code) {
+        int mask = keys.length - 1;
+        for (int i = mix(code) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == code) return i;
+        }
+        return -1;
+    }
+
+    // The table entry of a prefix, added with an empty list if new.
+    private int entry(int code) {
+        int entry = find(code);
+        if (entry >= 0) return entry;
+        if ((keyCount + 1) * 2 > keys.length) resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = mix(code) & mask;
+        while (keys[i] != 0) i = (i + 1) & mask;
+        keys[i] = code;
+        lists[i] = NO_SLOTS;
+        keyCount++;
+        return i;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[][] oldLists = lists;
+        int[] oldSizes = sizes;
+        keys = new int[capacity];
+        lists = new int[capacity][];
+        sizes = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            lists[i] = oldLists[j];
+            sizes[i] = oldSizes[j];
+        }
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable result produced by an {@link ItemList}: the finished item list
+ * together with the list operations that turn {@link #base} into {@link #items}.
+ * Instances are built on a background thread and handed to the UI as-is.
+ */
+public final class ItemsUpdate {
+
+    /**
+     * Receives list operations; the same shape as RecyclerView's ListUpdateCallback,
+     * so an adapter can forward them one to one.
+     */
+    public interface Callback {
+        void onInserted(int position, int count);
+        void onRemoved(int position, int count);
+        void onMoved(int fromPosition, int toPosition);
+        void onChanged(int position, int count, @Nullable Object payload);
+    }
+
+    // --- Change Payloads (bit flags, combined with |) ---
+    /** Payload flag: the item's title changed. */
+    public static final int PAYLOAD_TITLE = 1;
+    /** Payload flag: the item's subtitle changed. */
+    public static final int PAYLOAD_SUBTITLE = 1 << 1;
+
+    // --- Operation Types ---
+    static final int INSERT = 0;
+    static final int REMOVE = 1;
+    static final int MOVE = 2;
+    static final int CHANGE = 3;
+
+    /**
+     * A single recorded list operation, in the same terms as {@link Callback}.
+     */
+    static final class Op {
+        final int type;
+        final int position;
+        final int count;     // Item count for INSERT/REMOVE/CHANGE, target position for MOVE.
+        final Object payload;
+
+        Op(int type, int position, int count, @Nullable Object payload) {
+            this.type = type;
+            this.position = position;
+            this.count = count;
+            this.payload = payload;
+        }
+    }
+
+    // Base of updates that replace the whole list; it never matches what the UI shows.
+    private static final PackedItems RESET = new PackedItems(new byte[0], new int[1], new byte[0], new int[0]);
+
+    /** The list these operations apply to. The UI compares it by identity with what it shows. */
+    public final PackedItems base;
+
+    /** The new, immutable list of items. */
+    public final PackedItems items;
+
+    private final List<Op> ops;
+
+    ItemsUpdate(@NonNull PackedItems base, @NonNull PackedItems items, @NonNull List<Op> ops) {
+        this.base = base;
+        this.items = items;
+        this.ops = ops;
+    }
+
+    /**
+     * Creates an update without operations, for changes such as a new sort order that
+     * move nearly everything. Its base never matches, so the UI rebinds in full.
+     * @param items The new list of items.
+     */
+    @NonNull
+    static ItemsUpdate reset(@NonNull PackedItems items) {
+        return new ItemsUpdate(RESET, items, Collections.emptyList());
+    }
+
+    /**
+     * Replays the recorded operations, in order, to a callback such as one forwarding
+     * to an adapter's notify methods.
+     * @param callback The callback receiving the operations.
+     */
+    public void dispatchTo(@NonNull Callback callback) {
+        for (Op op : ops) {
+            switch (op.type) {
+                case INSERT: callback.onInserted(op.position, op.count); break;
+                case REMOVE: callback.onRemoved(op.position, op.count); break;
+                case MOVE:   callback.onMoved(op.position, op.count); break;
+                case CHANGE: callback.onChanged(op.position, op.count, op.payload); break;
+            }
+        }
+    }
+
+    /**
+     * Merges this (older, not yet displayed) update with a newer one into a single update
+     * going straight from this update's base to the newer update's items.
+     * @param newer An update whose base is this update's items.
+     * @return The combined update.
+     */
+    @NonNull
+    public ItemsUpdate then(@NonNull ItemsUpdate newer) {
+        // After a reset only the newest list matters: the UI rebinds in full anyway.
+        if (newer.base == RESET) return newer;
+        if (base == RESET) return reset(newer.items);
+        List<Op> merged = new ArrayList<>(ops.size() + newer.ops.size());
+        merged.addAll(ops);
+        merged.addAll(newer.ops);
+        return new ItemsUpdate(base, newer.items, merged);
+    }
+
+    /** The number of recorded operations, after folding. */
+    public int opCount() {
+        return ops.size();
+    }
+
+    /**
+     * A callback that records operations for a later replay. Consecutive
+     * inserts or removes at adjacent positions are folded into a single range operation,
+     * which keeps the initial load of a large collection down to one operation.
+     */
+    static final class Recorder implements Callback {
+        private final List<Op> ops = new ArrayList<>();
+
+        @Override
+        public void onInserted(int position, int count) {
+            Op last = last();
+            if (last != null && last.type == INSERT && position == last.position + last.count) {
+                ops.set(ops.size() - 1, new Op(INSERT, last.position, last.count + count, null));
+            } else {
+                ops.add(new Op(INSERT, position, count, null));
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            Op last = last();
+            if (last != null && last.type == REMOVE && position == last.position) {
+                ops.set(ops.size() - 1, new Op(REMOVE, position, last.count + count, null));
+            } else if (last != null && last.type == REMOVE && position + count == last.position) {
+                ops.set(ops.size() - 1, new Op(REMOVE, position, last.count + count, null));
+            } else {
+                ops.add(new Op(REMOVE, position, count, null));
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            ops.add(new Op(MOVE, fromPosition, toPosition, null));
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            ops.add(new Op(CHANGE, position, count, payload));
+        }
+
+        boolean isEmpty() {
+            return ops.isEmpty();
+        }
+
+        @NonNull
+        ItemsUpdate build(@NonNull PackedItems base, @NonNull PackedItems items) {
+            return new ItemsUpdate(base, items, Collections.unmodifiableList(ops));
+        }
+
+        @Nullable
+        private Op last() {
+            return ops.isEmpty() ? null : ops.get(ops.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of items read straight from the packed arrays of an {@link ItemList}.
+ *
+ * <p>It holds one int per item plus references to the shared arrays, instead of one
+ * object and three strings per item. {@link #get(int)} creates a new {@link SimpleItem}
+ * on every call, so only the rows actually bound (or measured) ever exist as objects;
+ * callers that need a single field should use {@link #id(int)}, {@link #title(int)} or
+ * {@link #stableId(int, long)} instead. Safe to read from any thread once handed over.</p>
+ */
+public final class PackedItems extends AbstractList<SimpleItem> implements RandomAccess {
+
+    /** An empty list. */
+    public static final PackedItems EMPTY = new PackedItems(new byte[0], new int[1], new byte[0], new int[0]);
+
+    private final byte[] bytes;
+    private final int[] starts;
+    private final byte[] flags;
+    private final int[] slots;
+
+    PackedItems(@NonNull byte[] bytes, @NonNull int[] starts, @NonNull byte[] flags, @NonNull int[] slots) {
+        this.bytes = bytes;
+        this.starts = starts;
+        this.flags = flags;
+        this.slots = slots;
+    }
+
+    /**
+     * Materializes the item at a position. Each call returns a new, equal instance.
+     * @param index The position.
+     */
+    @NonNull
+    @Override
+    public SimpleItem get(int index) {
+        int slot = slots[index];
+        return new SimpleItem(field(slot, ItemColumns.ID), field(slot, ItemColumns.TITLE),
+                field(slot, ItemColumns.SUBTITLE));
+    }
+
+    @Override
+    public int size() {
+        return slots.length;
+    }
+
+    /** The document id at a position. */
+    @Nullable
+    public String id(int index) {
+        return field(slots[index], ItemColumns.ID);
+    }
+
+    /** The title at a position. */
+    @Nullable
+    public String title(int index) {
+        return field(slots[index], ItemColumns.TITLE);
+    }
+
+    /** The subtitle at a position. */
+    @Nullable
+    public String subtitle(int index) {
+        return field(slots[index], ItemColumns.SUBTITLE);
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the document id at a position, computed without creating
+     * a string, so the same document keeps the same id across lists.
+     * @param index The position.
+     * @param noId The value to return if the item has no id.
+     */
+    public long stableId(int index, long noId) {
+        int slot = slots[index];
+        if ((flags[slot] & (1 << ItemColumns.ID)) != 0) return noId;
+        boolean wide = (flags[slot] & ItemColumns.WIDE) != 0;
+        int from = starts[slot * ItemColumns.FIELDS + ItemColumns.ID];
+        int len = starts[slot * ItemColumns.FIELDS + ItemColumns.ID + 1] - from;
+        if (wide) len >>= 1;
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < len; i++) {
+            h ^= ItemColumns.charAt(bytes, from, i, wide);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    @Nullable
+    private String field(int slot, int field) {
+        return ItemColumns.get(bytes, starts, flags, slot, field);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.firebasenavdemo.core.model;
+
+import java.util.Objects;
+
+/**
+ * A simple data model class (POJO) representing an item with a title and a subtitle.
+ * It has no Android or Firebase dependencies; the app maps it to and from Firestore
+ * documents explicitly. Two items are equal if their id, title and subtitle are equal;
+ * the sync fields are not compared.
+ */
+public class SimpleItem {
+
+    /**
+     * The unique ID of the item's Firestore document. It is not a document field: it is
+     * filled from the document's key when the document is read.
+     */
+    public String id;
+
+    /**
+     * The main title of the item.
+     */
+    public String title;
+
+    /**
+     * A secondary piece of information or description for the item.
+     */
+    public String subtitle;
+
+    // --- Sync Metadata (not displayed, not compared, not kept by the packed list) ---
+
+    /**
+     * When the item was last written, as set by the server, in milliseconds since the
+     * epoch; 0 if unknown (written before the field existed, or not yet acknowledged).
+     */
+    public long updatedAt;
+
+    /**
+     * Whether the item is a tombstone: deleted items are kept as documents with this
+     * flag, so a sync that only reads what changed still learns about deletions.
+     */
+    public boolean deleted;
+
+    /**
+     * No-argument constructor, for filling the fields one by one (e.g. when parsing).
+     */
+    public SimpleItem() {}
+
+    /**
+     * Constructs a new SimpleItem with a title and subtitle.
+     * Useful for creating new items before sending them to Firestore.
+     *
+     * @param title    The title of the item.
+     * @param subtitle The subtitle of the item.
+     */
+    public SimpleItem(String title, String subtitle) {
+        this.title = title;
+        this.subtitle = subtitle;
+    }
+
+    /**
+     * Constructs a SimpleItem for an existing document.
+     *
+     * @param id       The document id.
+     * @param title    The title of the item.
+     * @param subtitle The subtitle of the item.
+     */
+    public SimpleItem(String id, String title, String subtitle) {
+        this.id = id;
+        this.title = title;
+        this.subtitle = subtitle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SimpleItem)) return false;
+        SimpleItem other = (SimpleItem) o;
+        return Objects.equals(id, other.id) && Objects.equals(title, other.title)
+                && Objects.equals(subtitle, other.subtitle);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, subtitle);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.firebasenavdemo.core;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ItemColumns}.
+ */
+public class ItemColumnsTest {
+
+    private ItemColumns columns;
+
+    @Before
+    public void setUp() {
+        columns = new ItemColumns();
+    }
+
+    private int add(String id, String title, String subtitle) {
+        return columns.add(new SimpleItem(id, title, subtitle), null);
+    }
+
+    @Test
+    public void add_roundTripsLatin1WideAndNullText() {
+        int latin = add("a", "Niño", "Canción");
+        int wide = add("b", "日本語", "Ωmega 😀");
+        int nulls = add("c", null, null);
+
+        assertEquals(new SimpleItem("a", "Niño", "Canción"), columns.item(latin));
+        assertEquals(new SimpleItem("b", "日本語", "Ωmega 😀"), columns.item(wide));
+        assertNull(columns.get(nulls, ItemColumns.TITLE));
+        assertNull(columns.get(nulls, ItemColumns.SUBTITLE));
+        assertNull(columns.get(latin, ItemColumns.FOLDED));
+        assertEquals("nino cancion", columns.folded(latin));
+        assertEquals(" 日本語 ωmega ", columns.folded(wide));
+    }
+
+    @Test
+    public void fieldEquals_comparesAcrossEncodings() {
+        int latin = add("a", "same", null);
+        int wide = add("b", "same", "ω");
+        int other = add("c", "Same", null);
+
+        assertTrue(columns.fieldEquals(latin, wide, ItemColumns.TITLE));
+        assertFalse(columns.fieldEquals(latin, other, ItemColumns.TITLE));
+        assertFalse(columns.fieldEquals(latin, wide, ItemColumns.SUBTITLE));
+        assertTrue(columns.fieldEquals(latin, ItemColumns.SUBTITLE, null));
+        assertTrue(columns.sameText(wide, new SimpleItem("b", "same", "ω")));
+        assertFalse(columns.sameText(wide, new SimpleItem("b", "same", null)));
+    }
+
+    @Test
+    public void idHash_matchesStringHashCode() {
+        int latin = add("doc-123", "t", null);
+        int wide = add("δοκ", "日本", null);
+
+        assertEquals("doc-123".hashCode(), columns.idHash(latin));
+        assertEquals("δοκ".hashCode(), columns.idHash(wide));
+        assertTrue(columns.idEquals(wide, "δοκ"));
+        assertFalse(columns.idEquals(wide, "δο"));
+    }
+
+    @Test
+    public void compareCodePoints_matchesItemOrder() {
+        String[] titles = { null, "", "B", "a", "ab", "é", "日本", "", new String(Character.toChars(0x1F600)) };
+        int[] slots = new int[titles.length];
+        for (int i = 0; i < titles.length; i++) slots[i] = add("id" + i, titles[i], null);
+
+        for (int i = 0; i < titles.length; i++) {
+            for (int j = 0; j < titles.length; j++) {
+                assertEquals(titles[i] + " vs " + titles[j],
+                        Integer.signum(ItemOrder.compareCodePoints(titles[i], titles[j])),
+                        Integer.signum(columns.compareCodePoints(slots[i], slots[j], ItemColumns.TITLE)));
+            }
+        }
+    }
+
+    @Test
+    public void containsWordPrefix_findsWordStarts() {
+        int latin = add("a", "Red Äpple", "e-mail");
+        int wide = add("b", "Ωmega äpple", null);
+
+        assertTrue(columns.containsWordPrefix(latin, "app"));
+        assertTrue(columns.containsWordPrefix(latin, "mail"));
+        assertFalse(columns.containsWordPrefix(latin, "pple"));
+        assertFalse(columns.containsWordPrefix(latin, "email"));
+        assertTrue(columns.containsWordPrefix(wide, "app"));
+        assertTrue(columns.containsWordPrefix(wide, "ωm"));
+        assertFalse(columns.containsWordPrefix(wide, "mega"));
+    }
+
+    @Test
+    public void compact_keepsLiveSlotsInOrder() {
+        int a = add("a", "first", null);
+        int b = add("b", "日本", "wide");
+        int c = add("c", "third", "x");
+        columns.setKey(c, new byte[] { 3 });
+
+        int[] map = columns.compact(new int[] { a, c }, 2);
+
+        assertEquals(0, map[a]);
+        assertEquals(-1, map[b]);
+        assertEquals(1, map[c]);
+        assertEquals(2, columns.size);
+        assertEquals(new SimpleItem("a", "first", null), columns.item(0));
+        assertEquals(new SimpleItem("c", "third", "x"), columns.item(1));
+        assertEquals("c".hashCode(), columns.idHash(1));
+
+        // Appending after a compaction continues with the next slot.
+        assertEquals(2, add("d", "after", null));
+        assertEquals("after", columns.get(2, ItemColumns.TITLE));
+    }
+
+    @Test
+    public void packedItems_readTheSameText() {
+        add("a", "Niño", null);
+        add("b", "日本", "x");
+        PackedItems packed = new PackedItems(columns.bytes, columns.starts, columns.flags, new int[] { 1, 0 });
+
+        assertEquals(2, packed.size());
+        assertEquals("b", packed.id(0));
+        assertEquals("Niño", packed.title(1));
+        assertEquals(new SimpleItem("b", "日本", "x"), packed.get(0));
+        assertEquals(packed.stableId(0, -1), packed.stableId(0, -1));
+        assertNotEquals(packed.stableId(0, -1), packed.stableId(1, -1));
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.firebasenavdemo.core;
+
+import androidx.annotation.Nullable;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ItemList}. Every update is replayed onto the previously shown
+ * list to check that its operations lead to exactly the list it carries.
+ */
+public class ItemListTest {
+
+    private static final Object A = "source A";
+    private static final Object B = "source B";
+
+    private ItemList list;
+    private Screen screen;
+
+    @Before
+    public void setUp() {
+        list = new ItemList();
+        screen = new Screen();
+    }
+
+    private static SimpleItem item(String id, String title) {
+        return new SimpleItem(id, title, "sub " + id);
+    }
+
+    private static List<SimpleItem> items(SimpleItem... items) {
+        return Arrays.asList(items);
+    }
+
+    private static List<String> ids(String... ids) {
+        return Arrays.asList(ids);
+    }
+
+    private ItemsUpdate upsert(Object source, SimpleItem... items) {
+        return screen.show(list.apply(source, items(items), Collections.emptyList()));
+    }
+
+    private ItemsUpdate remove(Object source, String... ids) {
+        return screen.show(list.apply(source, Collections.emptyList(), ids(ids)));
+    }
+
+    // --- Apply ---
+
+    @Test
+    public void apply_sortsByTitleThenId() {
+        upsert(A, item("3", "b"), item("1", "c"), item("2", "b"), item("4", "a"));
+        assertEquals(ids("4", "2", "3", "1"), screen.ids());
+    }
+
+    @Test
+    public void apply_movesChangedItemAndReportsPayload() {
+        upsert(A, item("1", "a"), item("2", "b"), item("3", "c"));
+        ItemsUpdate update = upsert(A, item("1", "d"));
+
+        assertEquals(ids("2", "3", "1"), screen.ids());
+        assertEquals(ItemsUpdate.PAYLOAD_TITLE, screen.lastPayload);
+        assertEquals("d", update.items.title(2));
+    }
+
+    @Test
+    public void apply_subtitleChangeKeepsPosition() {
+        upsert(A, item("1", "a"), item("2", "b"));
+        screen.show(list.apply(A, items(new SimpleItem("1", "a", "new")), Collections.emptyList()));
+
+        assertEquals(ids("1", "2"), screen.ids());
+        assertEquals(ItemsUpdate.PAYLOAD_SUBTITLE, screen.lastPayload);
+        assertEquals("new", screen.shown.subtitle(0));
+    }
+
+    @Test
+    public void apply_sameTextOnlyChangesOwner() {
+        upsert(A, item("1", "a"), item("2", "b"));
+
+        assertNull(list.apply(B, items(item("1", "a")), Collections.emptyList()));
+        assertEquals(1, list.countOf(A));
+        assertEquals(1, list.countOf(B));
+    }
+
+    @Test
+    public void apply_removalOnlyCountsForOwner() {
+        upsert(A, item("1", "a"), item("2", "b"));
+
+        assertNull(list.apply(B, Collections.emptyList(), ids("1")));
+        remove(A, "1");
+
+        assertEquals(ids("2"), screen.ids());
+        assertEquals(1, list.countOf(A));
+    }
+
+    @Test
+    public void apply_ignoresItemsWithoutId() {
+        upsert(A, new SimpleItem("no id", "x"), item("1", "a"));
+        assertEquals(ids("1"), screen.ids());
+    }
+
+    @Test
+    public void apply_bulkBatchMatchesSmallBatches() {
+        Random random = new Random(7);
+        List<SimpleItem> all = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) all.add(item("id" + i, "t" + random.nextInt(300)));
+
+        ItemList bulk = new ItemList();
+        Screen bulkScreen = new Screen();
+        bulkScreen.show(bulk.apply(A, all, Collections.emptyList()));
+        for (int i = 0; i < all.size(); i += 100) {
+            screen.show(list.apply(A, all.subList(i, i + 100), Collections.emptyList()));
+        }
+
+        assertEquals(expectedOrder(all), bulkScreen.ids());
+        assertEquals(expectedOrder(all), screen.ids());
+    }
+
+    @Test
+    public void apply_randomChangesMatchModel() {
+        // Enough replacements to trigger compaction and to exercise the id table's
+        // removals and resizes.
+        Random random = new Random(42);
+        Map<String, SimpleItem> model = new HashMap<>();
+        for (int round = 0; round < 400; round++) {
+            List<SimpleItem> upserts = new ArrayList<>();
+            List<String> removals = new ArrayList<>();
+            int n = (round % 50 == 0) ? 400 : 1 + random.nextInt(30);
+            for (int i = 0; i < n; i++) {
+                String id = "doc" + random.nextInt(2000);
+                if (random.nextInt(4) == 0) {
+                    if (!removals.contains(id)) removals.add(id);
+                } else {
+                    upserts.add(item(id, "title " + random.nextInt(500)));
+                }
+            }
+            screen.show(list.apply(A, upserts, removals));
+            for (String id : removals) model.remove(id);
+            for (SimpleItem it : upserts) model.put(it.id, it);
+        }
+
+        assertEquals(expectedOrder(new ArrayList<>(model.values())), screen.ids());
+        assertEquals(model.size(), list.size());
+        assertEquals(model.size(), list.countOf(A));
+        for (int i = 0; i < screen.shown.size(); i++) {
+            assertEquals(model.get(screen.shown.id(i)), screen.shown.get(i));
+        }
+    }
+
+    // --- Evict ---
+
+    @Test
+    public void evict_dropsOnlyTheSourcesItems() {
+        upsert(A, item("1", "a"), item("3", "c"));
+        upsert(B, item("2", "b"), item("4", "d"));
+
+        List<String> evicted = new ArrayList<>();
+        screen.show(list.evict(B, evicted));
+
+        assertEquals(ids("2", "4"), evicted);
+        assertEquals(ids("1", "3"), screen.ids());
+        assertEquals(0, list.countOf(B));
+        assertNull(list.evict(B, new ArrayList<>()));
+    }
+
+    @Test
+    public void evict_keepsItemsThatMovedToAnotherSource() {
+        upsert(A, item("1", "a"), item("2", "b"));
+        upsert(B, item("2", "b"));
+
+        screen.show(list.evict(A, new ArrayList<>()));
+
+        assertEquals(ids("2"), screen.ids());
+    }
+
+    // --- Hide ---
+
+    @Test
+    public void hide_removesFromDisplayUntilUnhidden() {
+        upsert(A, item("1", "a"), item("2", "b"), item("3", "c"));
+
+        screen.show(list.hide(ids("2")));
+        assertEquals(ids("1", "3"), screen.ids());
+        assertEquals(3, list.size());
+
+        screen.show(list.unhide(ids("2")));
+        assertEquals(ids("1", "2", "3"), screen.ids());
+    }
+
+    @Test
+    public void hide_appliesToItemsLoadedLater() {
+        assertNull(list.hide(ids("2")));
+        upsert(A, item("1", "a"), item("2", "b"));
+        assertEquals(ids("1"), screen.ids());
+
+        // A new version of a hidden item stays hidden.
+        upsert(A, item("2", "a"));
+        assertEquals(ids("1"), screen.ids());
+
+        screen.show(list.unhide(ids("2")));
+        assertEquals(ids("1", "2"), screen.ids());
+    }
+
+    @Test
+    public void unhide_ofRemovedItemChangesNothing() {
+        upsert(A, item("1", "a"), item("2", "b"));
+        screen.show(list.hide(ids("2")));
+        remove(A, "2");
+
+        assertNull(list.unhide(ids("2")));
+        assertEquals(ids("1"), screen.ids());
+    }
+
+    // --- Query ---
+
+    @Test
+    public void setQuery_filtersAndRestores() {
+        upsert(A, item("1", "Apple pie"), item("2", "Banana"), item("3", "Apricot"));
+
+        screen.show(list.setQuery(ItemSearchIndex.parse("ap")));
+        assertEquals(ids("1", "3"), screen.ids());
+
+        assertNull(list.setQuery(ItemSearchIndex.parse(" AP ")));
+
+        screen.show(list.setQuery(null));
+        assertEquals(ids("1", "3", "2"), screen.ids());
+    }
+
+    @Test
+    public void setQuery_appliesToLaterChanges() {
+        upsert(A, item("1", "Apple"), item("2", "Banana"));
+        screen.show(list.setQuery(ItemSearchIndex.parse("ban")));
+        assertEquals(ids("2"), screen.ids());
+
+        // An item that starts matching appears, one that stops matching disappears.
+        upsert(A, item("1", "Bandana"));
+        assertEquals(ids("2", "1"), screen.ids());
+        upsert(A, item("2", "Cherry"));
+        assertEquals(ids("1"), screen.ids());
+        upsert(A, item("5", "Banner"));
+        assertEquals(ids("1", "5"), screen.ids());
+    }
+
+    @Test
+    public void setQuery_respectsHiddenItems() {
+        upsert(A, item("1", "Apple"), item("2", "Apricot"));
+        screen.show(list.hide(ids("1")));
+        screen.show(list.setQuery(ItemSearchIndex.parse("ap")));
+
+        assertEquals(ids("2"), screen.ids());
+    }
+
+    // --- Displayed Owners ---
+
+    @Test
+    public void ownerAt_followsTheDisplayedList() {
+        upsert(A, item("1", "Apple"), item("2", "Banana"));
+        upsert(B, item("3", "Cherry"), item("4", "Date"));
+
+        screen.show(list.setQuery(ItemSearchIndex.parse("da")));
+        assertEquals(1, list.displayedSize());
+        assertSame(B, list.ownerAt(0));
+        assertNull(list.ownerAt(1));
+
+        screen.show(list.setQuery(null));
+        screen.show(list.hide(ids("1")));
+        assertEquals(3, list.displayedSize());
+        assertSame(A, list.ownerAt(0));
+        assertSame(B, list.ownerAt(1));
+        assertNull(list.ownerAt(-1));
+    }
+
+    // --- Sort Locale ---
+
+    @Test
+    public void setSortLocale_resortsByCollation() {
+        upsert(A, item("1", "apple"), item("2", "Zebra"), item("3", "éclair"), item("4", "Banana"));
+        // Code point order: upper case first, accented letters last.
+        assertEquals(ids("4", "2", "1", "3"), screen.ids());
+
+        ItemsUpdate update = screen.show(list.setSortLocale(Locale.ENGLISH));
+        assertNotNull(update);
+        assertEquals(ids("1", "4", "3", "2"), screen.ids());
+        assertNull(list.setSortLocale(Locale.ENGLISH));
+
+        // New and changed items are placed by the same collation.
+        upsert(A, item("5", "Cherry"), item("2", "avocado"));
+        assertEquals(ids("1", "2", "4", "5", "3"), screen.ids());
+
+        screen.show(list.setSortLocale(null));
+        assertEquals(ids("4", "5", "1", "2", "3"), screen.ids());
+    }
+
+    @Test
+    public void setSortLocale_keepsQueryAndHiddenItems() {
+        upsert(A, item("1", "apple"), item("2", "Avocado"), item("3", "Banana"));
+        screen.show(list.setQuery(ItemSearchIndex.parse("a")));
+        screen.show(list.hide(ids("3")));
+
+        screen.show(list.setSortLocale(Locale.ENGLISH));
+
+        assertEquals(ids("1", "2"), screen.ids());
+    }
+
+    // --- Helpers ---
+
+    // The ids of items in the list's default (code point) order.
+    private static List<String> expectedOrder(List<SimpleItem> items) {
+        List<SimpleItem> sorted = new ArrayList<>(items);
+        sorted.sort(ItemOrder.BY_TITLE);
+        List<String> ids = new ArrayList<>();
+        for (SimpleItem it : sorted) ids.add(it.id);
+        return ids;
+    }
+
+    /**
+     * Plays the role of the adapter: replays each update's operations onto the list it
+     * showed and checks the result against the update's list.
+     */
+    private static final class Screen implements ItemsUpdate.Callback {
+        PackedItems shown = PackedItems.EMPTY;
+        Object lastPayload;
+        private List<String> replayed;
+
+        @Nullable
+        ItemsUpdate show(@Nullable ItemsUpdate update) {
+            if (update == null) return null;
+            if (update.base == shown) {
+                replayed = new ArrayList<>(ids());
+                update.dispatchTo(this);
+                assertEquals(update.items.size(), replayed.size());
+                for (int i = 0; i < replayed.size(); i++) {
+                    String id = replayed.get(i);
+                    if (id != null) assertEquals("position " + i, update.items.id(i), id);
+                }
+            }
+            shown = update.items;
+            return update;
+        }
+
+        List<String> ids() {
+            List<String> ids = new ArrayList<>(shown.size());
+            for (int i = 0; i < shown.size(); i++) ids.add(shown.id(i));
+            return ids;
+        }
+
+        @Override public void onInserted(int position, int count) {
+            for (int i = 0; i < count; i++) replayed.add(position, null);
+        }
+
+        @Override public void onRemoved(int position, int count) {
+            for (int i = 0; i < count; i++) replayed.remove(position);
+        }
+
+        @Override public void onMoved(int fromPosition, int toPosition) {
+            replayed.add(toPosition, replayed.remove(fromPosition));
+        }
+
+        @Override public void onChanged(int position, int count, @Nullable Object payload) {
+            lastPayload = payload;
+        }
+    }
+}
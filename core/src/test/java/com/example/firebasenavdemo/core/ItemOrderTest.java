@@ -0,0 +1,49 @@
+package com.example.firebasenavdemo.core;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ItemOrder}.
+ */
+public class ItemOrderTest {
+
+    @Test
+    public void compareCodePoints_nullSortsFirst() {
+        assertEquals(0, ItemOrder.compareCodePoints(null, null));
+        assertTrue(ItemOrder.compareCodePoints(null, "") < 0);
+        assertTrue(ItemOrder.compareCodePoints("", null) > 0);
+    }
+
+    @Test
+    public void compareCodePoints_prefixSortsFirst() {
+        assertTrue(ItemOrder.compareCodePoints("ab", "abc") < 0);
+        assertTrue(ItemOrder.compareCodePoints("B", "a") < 0);
+    }
+
+    @Test
+    public void compareCodePoints_supplementarySortsAfterBmp() {
+        String emoji = new String(Character.toChars(0x1F600));
+        String privateUse = "";
+        String replacement = "�";
+        // UTF-16 unit order would put the surrogate pair first.
+        assertTrue(emoji.compareTo(privateUse) < 0);
+        assertTrue(ItemOrder.compareCodePoints(emoji, privateUse) > 0);
+        assertTrue(ItemOrder.compareCodePoints(emoji, replacement) > 0);
+        assertTrue(ItemOrder.compareCodePoints("z", emoji) < 0);
+    }
+
+    @Test
+    public void byTitle_breaksTiesById() {
+        SimpleItem a = new SimpleItem("1", "same", null);
+        SimpleItem b = new SimpleItem("2", "same", null);
+        SimpleItem c = new SimpleItem("0", "z", null);
+
+        assertTrue(ItemOrder.BY_TITLE.compare(a, b) < 0);
+        assertTrue(ItemOrder.BY_TITLE.compare(b, c) < 0);
+        assertEquals(0, ItemOrder.BY_TITLE.compare(a, new SimpleItem("1", "same", "other")));
+    }
+}
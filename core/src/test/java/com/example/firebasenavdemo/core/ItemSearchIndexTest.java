@@ -0,0 +1,123 @@
+package com.example.firebasenavdemo.core;
+
+import com.example.firebasenavdemo.core.model.SimpleItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ItemSearchIndex}: folding, word splitting and prefix matching.
+ */
+public class ItemSearchIndexTest {
+
+    private ItemColumns columns;
+    private ItemSearchIndex index;
+
+    @Before
+    public void setUp() {
+        columns = new ItemColumns();
+        index = new ItemSearchIndex(columns);
+    }
+
+    // Stores and indexes an item, returning its slot.
+    private int add(String id, String title, String subtitle) {
+        int slot = columns.add(new SimpleItem(id, title, subtitle), null);
+        index.add(slot);
+        return slot;
+    }
+
+    private BitSet search(String text) {
+        return index.search(ItemSearchIndex.parse(text));
+    }
+
+    private static BitSet slots(int... slots) {
+        BitSet set = new BitSet();
+        for (int slot : slots) set.set(slot);
+        return set;
+    }
+
+    @Test
+    public void fold_splitsOnPunctuation() {
+        assertEquals(" foo bar item 5 ", ItemSearchIndex.fold("Foo-bar", "(Item #5)"));
+        assertEquals("   ", ItemSearchIndex.fold(null, ""));
+    }
+
+    @Test
+    public void parse_blankQueryMatchesEverything() {
+        assertNull(ItemSearchIndex.parse(null));
+        assertNull(ItemSearchIndex.parse("  -- "));
+    }
+
+    @Test
+    public void search_findsWordsAfterPunctuation() {
+        int hyphen = add("a", "foo-bar", null);
+        int paren = add("b", "Notes (draft)", null);
+        int hash = add("c", "Item #5", null);
+        int mail = add("d", "Send", "e-mail");
+
+        assertEquals(slots(hyphen), search("bar"));
+        assertEquals(slots(paren), search("draft"));
+        assertEquals(slots(hash), search("5"));
+        assertEquals(slots(mail), search("mail"));
+        assertEquals(slots(mail), search("e-mail"));
+    }
+
+    @Test
+    public void search_ignoresAccentsAndCase() {
+        int nino = add("a", "Niño", null);
+        int cancion = add("b", "Otra", "Canción");
+
+        assertEquals(slots(nino), search("nino"));
+        assertEquals(slots(nino), search("NIÑO"));
+        assertEquals(slots(cancion), search("cancion"));
+        assertEquals(slots(cancion), search("canción"));
+    }
+
+    @Test
+    public void search_matchesTextOutsideLatin1() {
+        int greek = add("a", "Ωmega", "Ärger");
+        int latin = add("b", "Omen", "Argon");
+
+        assertEquals(slots(greek), search("ωm"));
+        assertEquals(slots(greek, latin), search("arg"));
+        assertEquals(slots(greek, latin), search("a"));
+        assertEquals(slots(latin), search("o"));
+    }
+
+    @Test
+    public void search_matchesWordPrefixesOnly() {
+        int apple = add("a", "Apple pie", null);
+        int pineapple = add("b", "Pineapple", null);
+
+        assertEquals(slots(apple), search("ap"));
+        assertEquals(slots(apple), search("appl"));
+        assertEquals(slots(apple, pineapple), search("p"));
+        assertEquals(slots(pineapple), search("pine"));
+        assertTrue(search("pies").isEmpty());
+    }
+
+    @Test
+    public void search_requiresEveryQueryWord() {
+        int both = add("a", "Red apple", null);
+        add("b", "Red car", null);
+
+        assertEquals(slots(both), search("red app"));
+        assertEquals(slots(both), search("app red"));
+        assertTrue(search("red bus").isEmpty());
+    }
+
+    @Test
+    public void remove_dropsSlotFromResults() {
+        int kept = add("a", "Alpha one", null);
+        int removed = add("b", "Alpha two", null);
+
+        index.remove(removed);
+
+        assertEquals(slots(kept), search("alpha"));
+        assertTrue(search("two").isEmpty());
+    }
+}
@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "FirebaseNavDemo"
 include(":app")
+include(":core")
+include(":benchmark")